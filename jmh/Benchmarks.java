@@ -0,0 +1,67 @@
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** Runs the JMH benchmarks and fails on a regression against {@code flymanagement.bench.baseline}. */
+public class Benchmarks {
+    public static void main(String[] args) throws Exception {
+        Path output = Path.of(args.length > 0 ? args[0] : "jmh-result.json");
+        String baseline = System.getProperty("flymanagement.bench.baseline", "");
+        double tolerancePct = Double.parseDouble(System.getProperty("flymanagement.bench.tolerancePct", "10"));
+
+        new Runner(new OptionsBuilder()
+                .include(System.getProperty("flymanagement.bench.include", ".*"))
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.toString())
+                .build()).run();
+        System.out.println("Results written to " + output.toAbsolutePath());
+
+        if (!baseline.isBlank()) {
+            List<String> regressions = compare(read(output), read(Path.of(baseline)), tolerancePct);
+            regressions.forEach(r -> System.err.println("REGRESSION: " + r));
+            System.exit(regressions.isEmpty() ? 0 : 1);
+        }
+    }
+
+    /** Compares scores by benchmark and parameters; for time-per-operation modes lower is better. */
+    static List<String> compare(Map<String, Score> results, Map<String, Score> baseline, double tolerancePct) {
+        List<String> regressions = new ArrayList<>();
+        results.forEach((name, result) -> {
+            Score before = baseline.get(name);
+            if (before == null || before.value() <= 0 || !before.unit().equals(result.unit())) return;
+            double change = (result.value() - before.value()) / before.value() * 100;
+            double worse = result.unit().endsWith("/op") ? change : -change;
+            if (worse > tolerancePct) {
+                regressions.add(String.format(Locale.ROOT, "%s: %.3f -> %.3f %s (%+.1f%%)", name, before.value(),
+                        result.value(), result.unit(), change));
+            }
+        });
+        return regressions;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (Object entry : (List<Object>) Json.parse(Files.readString(file, StandardCharsets.UTF_8))) {
+            Map<String, Object> run = (Map<String, Object>) entry;
+            String name = (String) run.get("benchmark");
+            if (run.get("params") instanceof Map<?, ?> params && !params.isEmpty()) name += params;
+            Map<String, Object> metric = (Map<String, Object>) run.get("primaryMetric");
+            scores.put(name, new Score(((Number) metric.get("score")).doubleValue(), (String) metric.get("scoreUnit")));
+        }
+        return scores;
+    }
+
+    record Score(double value, String unit) {
+    }
+}
@@ -0,0 +1,151 @@
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/** Usage: {@code IndexAdvisorBenchmark [seedFlights] [iterations]} */
+public class IndexAdvisorBenchmark {
+    private static final String[] CITIES = {
+            "Sofia", "Varna", "Burgas", "Plovdiv", "London", "Paris", "Frankfurt", "Vienna", "Rome", "Madrid",
+            "Amsterdam", "Brussels", "Athens", "Istanbul", "Berlin", "Munich", "Zurich", "Milan", "Prague", "Warsaw"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int seedFlights = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        if (seedFlights > 0) {
+            TestDatabase.createSchemaIfMissing();
+            seed(seedFlights);
+        }
+
+        List<Shape> shapes = shapes();
+        System.out.println("== Before migrations (schema version " + SchemaMigrator.currentVersion() + ")");
+        for (Shape shape : shapes) run(shape, iterations);
+
+        int applied = SchemaMigrator.migrate();
+        System.out.println("== After " + applied + " migration(s) (schema version "
+                + SchemaMigrator.currentVersion() + ")");
+        for (Shape shape : shapes) run(shape, iterations);
+    }
+
+    private static List<Shape> shapes() {
+        LocalDate day = LocalDate.now().plusDays(10);
+        Timestamp from = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        String select = "SELECT " + Flight.COLUMNS + " FROM flights WHERE available_seats > 0 ";
+
+        return List.of(
+                new Shape("search, DATE() predicate (legacy)",
+                        select + "AND departure_city = ? AND destination_city = ? AND DATE(departure_time) = ? AND is_exclusive = ?",
+                        "Sofia", "London", java.sql.Date.valueOf(day), false),
+                new Shape("search, sargable date range",
+                        select + "AND departure_city = ? AND destination_city = ? " +
+                                "AND departure_time >= ? AND departure_time < ? AND is_exclusive = ?",
+                        "Sofia", "London", from, to, false),
+                new Shape("search by date only, sargable",
+                        select + "AND departure_time >= ? AND departure_time < ?", from, to),
+                new Shape("search by destination only",
+                        select + "AND destination_city = ?", "London"),
+                new Shape("my bookings join",
+                        "SELECT " + Booking.COLUMNS + " FROM tickets t JOIN flights f ON t.flight_id = f.flight_id " +
+                                "WHERE t.user_id = ?", 7),
+                new Shape("seat taken check",
+                        "SELECT 1 FROM tickets WHERE flight_id = ? AND seat_number = ?", 42, "A1")
+        );
+    }
+
+    private static void run(Shape shape, int iterations) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            System.out.println("-- " + shape.name());
+            try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + shape.sql())) {
+                Transactions.bind(pstmt, Arrays.asList(shape.params()), 1);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        StringBuilder row = new StringBuilder("   plan:");
+                        for (int i = 1; i <= meta.getColumnCount(); i++) {
+                            String value = rs.getString(i);
+                            if (value != null) row.append(' ').append(meta.getColumnLabel(i)).append('=').append(value);
+                        }
+                        System.out.println(row);
+                    }
+                }
+            } catch (SQLException e) {
+                System.out.println("   plan: unavailable (" + e.getMessage() + ")");
+            }
+
+            long[] nanos = new long[iterations];
+            int rows = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(shape.sql())) {
+                Transactions.bind(pstmt, Arrays.asList(shape.params()), 1);
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    rows = 0;
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) rows++;
+                    }
+                    nanos[i] = System.nanoTime() - start;
+                }
+            }
+            Arrays.sort(nanos);
+            System.out.printf("   %d rows, p50 %.3f ms, p95 %.3f ms, max %.3f ms%n", rows,
+                    nanos[iterations / 2] / 1e6, nanos[(int) (iterations * 0.95)] / 1e6, nanos[iterations - 1] / 1e6);
+        }
+    }
+
+    static void seed(int flights) throws SQLException {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDate.now().atStartOfDay();
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            List<Integer> ids = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO flights (departure_city, destination_city, departure_time, arrival_time, " +
+                            "price, available_seats, is_exclusive) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < flights; i++) {
+                    int from = random.nextInt(CITIES.length);
+                    int to = (from + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+                    LocalDateTime departure = base.plusDays(random.nextInt(120)).plusMinutes(random.nextInt(24 * 12) * 5L);
+                    pstmt.setString(1, CITIES[from]);
+                    pstmt.setString(2, CITIES[to]);
+                    pstmt.setTimestamp(3, Timestamp.valueOf(departure));
+                    pstmt.setTimestamp(4, Timestamp.valueOf(departure.plusMinutes(60 + random.nextInt(300))));
+                    pstmt.setDouble(5, 49 + random.nextInt(600));
+                    pstmt.setInt(6, random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(180));
+                    pstmt.setBoolean(7, random.nextInt(8) == 0);
+                    pstmt.addBatch();
+                    if (i % 1_000 == 999) {
+                        pstmt.executeBatch();
+                        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                            while (keys.next()) ids.add(keys.getInt(1));
+                        }
+                    }
+                }
+                pstmt.executeBatch();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    while (keys.next()) ids.add(keys.getInt(1));
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO tickets (user_id, flight_id, seat_number) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < flights * 2 && !ids.isEmpty(); i++) {
+                    pstmt.setInt(1, 1 + random.nextInt(5_000));
+                    pstmt.setInt(2, ids.get(random.nextInt(ids.size())));
+                    pstmt.setString(3, "ABCDEF".charAt(random.nextInt(6)) + String.valueOf(1 + random.nextInt(30)));
+                    pstmt.addBatch();
+                    if (i % 1_000 == 999) pstmt.executeBatch();
+                }
+                pstmt.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    private record Shape(String name, String sql, Object... params) {
+    }
+}
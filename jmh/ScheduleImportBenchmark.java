@@ -0,0 +1,125 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/** Usage: {@code ScheduleImportBenchmark [rows] [badRowPercent]} */
+public class ScheduleImportBenchmark {
+    private static final String[] CITIES = {
+            "Sofia", "Varna", "Burgas", "Plovdiv", "London", "Paris", "Frankfurt", "Vienna", "Rome", "Madrid"
+    };
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int badPercent = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        TestDatabase.createSchemaIfMissing();
+        SchemaMigrator.migrate();
+        File file = File.createTempFile("schedule-", ".csv");
+        file.deleteOnExit();
+        new File(file.getPath() + ".rejects.csv").deleteOnExit();
+        int valid = generate(file, rows, badPercent);
+        System.out.printf("%d rows, %d valid, in %s%n", rows, valid, file);
+
+        int sample = Math.min(rows, 2_000);
+        long start = System.nanoTime();
+        insertOneAtATime(sample);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("insertFullFlight x%d: %.0f rows/s%n", sample, sample / elapsed);
+
+        int[][] configs = {{1_000, 1}, {1_000, 50}, {5_000, 100}};
+        boolean ok = true;
+        for (int[] config : configs) {
+            int before = countFlights();
+            ScheduleImporter.Report report = new ScheduleImporter(config[0], config[1])
+                    .importFile(file, "bench-" + System.nanoTime(), null);
+            int added = countFlights() - before;
+            System.out.printf("chunk %d, %d rows/statement: %s%n", config[0], config[1], report);
+            ok &= check(added == valid, "expected " + valid + " flights, got " + added);
+        }
+
+        String source = "resume-" + System.nanoTime();
+        int before = countFlights();
+        ScheduleImporter importer = new ScheduleImporter(1_000, 50);
+        try {
+            importer.importFile(file, source, report -> {
+                if (report.lastLine() > rows / 2) throw new IllegalStateException("simulated crash");
+            });
+        } catch (IllegalStateException e) {
+            System.out.println("interrupted at " + (countFlights() - before) + " flights, resuming");
+        }
+        ScheduleImporter.Report resumed = importer.importFile(file, source, null);
+        int added = countFlights() - before;
+        System.out.println("resumed: " + resumed);
+        ok &= check(added == valid, "resume imported " + added + " flights, expected " + valid);
+        ok &= check(resumed.imported() == valid, "report says " + resumed.imported() + " imported");
+
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static int generate(File file, int rows, int badPercent) throws IOException {
+        Random random = new Random(7);
+        LocalDateTime base = LocalDate.now().plusDays(1).atStartOfDay();
+        int valid = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            out.write("departure_city,destination_city,departure_time,arrival_time,price,seats,is_exclusive");
+            out.newLine();
+            for (int i = 0; i < rows; i++) {
+                int from = random.nextInt(CITIES.length);
+                int to = (from + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+                LocalDateTime departure = base.plusDays(random.nextInt(180)).plusMinutes(random.nextInt(24 * 12) * 5L);
+                LocalDateTime arrival = departure.plusMinutes(60 + random.nextInt(300));
+                String price = String.valueOf(49 + random.nextInt(600));
+                String seats = String.valueOf(1 + random.nextInt(180));
+
+                boolean bad = random.nextInt(100) < badPercent;
+                if (bad) {
+                    switch (random.nextInt(3)) {
+                        case 0 -> arrival = departure.minusMinutes(5);
+                        case 1 -> price = "n/a";
+                        default -> seats = "0";
+                    }
+                } else {
+                    valid++;
+                }
+                out.write(CITIES[from] + "," + CITIES[to] + "," + TIME.format(departure) + "," + TIME.format(arrival)
+                        + "," + price + "," + seats + "," + (random.nextInt(8) == 0));
+                out.newLine();
+            }
+        }
+        return valid;
+    }
+
+    private static void insertOneAtATime(int rows) throws SQLException {
+        LocalDateTime departure = LocalDate.now().plusDays(1).atTime(9, 0);
+        for (int i = 0; i < rows; i++) {
+            DBConnection.insertFullFlight("Sofia", "Varna", Timestamp.valueOf(departure.plusHours(i)),
+                    Timestamp.valueOf(departure.plusHours(i + 1)), 99, 180, false);
+        }
+    }
+
+    private static int countFlights() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM flights")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static boolean check(boolean condition, String message) {
+        if (!condition) System.err.println("FAILED: " + message);
+        return condition;
+    }
+}
@@ -0,0 +1,179 @@
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+
+/** The operations the {@code bench} benchmarks time, looked up by name from the named package. */
+public class Workloads {
+    private static final String[] CITIES = {
+            "Sofia", "Varna", "Burgas", "Plovdiv", "London", "Paris", "Frankfurt", "Vienna", "Rome", "Madrid",
+            "Amsterdam", "Brussels", "Athens", "Istanbul", "Berlin", "Munich", "Zurich", "Milan", "Prague", "Warsaw"
+    };
+    private static final int FLIGHTS = Integer.getInteger("flymanagement.bench.flights", 20_000);
+    private static final String BENCH_EMAIL = "bench@example.com";
+    private static final String BENCH_PASSWORD = "correct horse battery staple";
+
+    private Workloads() {
+    }
+
+    /** Catalog filters, facets, type-ahead and connections over an in-memory schedule. */
+    public static Map<String, Callable<Object>> search() {
+        FlightCatalog catalog = catalog();
+        LocalDate day = LocalDate.now().plusDays(10);
+        FlightCatalog.Filter route = new FlightCatalog.Filter("Sofia", "London", null, null);
+        FlightCatalog.Filter routeOnDay = new FlightCatalog.Filter("Sofia", "London", day, false);
+        FlightCatalog.Filter destination = new FlightCatalog.Filter(null, "London", null, null);
+
+        Map<String, Callable<Object>> ops = new HashMap<>();
+        ops.put("catalogRoute", () -> catalog.query(route));
+        ops.put("catalogRouteOnDay", () -> catalog.query(routeOnDay));
+        ops.put("catalogDestination", () -> catalog.query(destination));
+        ops.put("facets", () -> FilterFacets.compute(catalog.all(), catalog.version()));
+        ops.put("typeAheadOrigin", () -> catalog.routes().suggestOrigins("so", 15));
+        ops.put("typeAheadDestination", () -> catalog.routes().suggestDestinations("l", "Sofia", 15));
+        ops.put("typeAheadTypo", () -> catalog.routes().suggestDestinations("lnodon", null, 15));
+        for (ConnectionFinder.Objective objective : ConnectionFinder.Objective.values()) {
+            ops.put("connections." + objective, () -> catalog.connections().find("Sofia", "London",
+                    day.atStartOfDay(), Duration.ofDays(1), 3, Duration.ofMinutes(45), objective));
+        }
+        return ops;
+    }
+
+    /** Reading the fares cached in the catalog against quoting every result, and requoting on a seat change. */
+    public static Map<String, Callable<Object>> fares() {
+        List<Flight> schedule = schedule(new Random(42), FLIGHTS, 120);
+        FlightCatalog catalog = new FlightCatalog(Long.MAX_VALUE, -1);
+        catalog.putAll(schedule);
+        double[] baseFares = new double[FLIGHTS + 1];
+        for (Flight flight : schedule) baseFares[flight.flightId()] = flight.price();
+        FlightCatalog.Filter destination = new FlightCatalog.Filter(null, "London", null, null);
+
+        Map<String, Callable<Object>> ops = new HashMap<>();
+        ops.put("cached", () -> {
+            double total = 0;
+            for (Flight flight : catalog.query(destination)) total += flight.price();
+            return total;
+        });
+        ops.put("quotedPerRow", () -> {
+            LocalDate today = LocalDate.now();
+            double total = 0;
+            for (Flight flight : catalog.query(destination)) {
+                total += FareEngine.quote(flight, baseFares[flight.flightId()], today);
+            }
+            return total;
+        });
+        AtomicLong seatVersion = new AtomicLong();
+        ops.put("seatsChanged", () -> {
+            int flightId = 1 + ThreadLocalRandom.current().nextInt(FLIGHTS);
+            catalog.seatsChanged(flightId, new DomainEvent.SeatCount(1 + ThreadLocalRandom.current().nextInt(180),
+                    seatVersion.incrementAndGet()));
+            return catalog.version();
+        });
+        return ops;
+    }
+
+    /** Updating one flight in the connection graph, as the catalog does on every seat change. */
+    public static Map<String, Callable<Object>> connectionGraph() {
+        List<Flight> schedule = schedule(new Random(42), FLIGHTS, 120);
+        ConnectionFinder finder = new ConnectionFinder();
+        for (Flight flight : schedule) finder.add(flight);
+
+        return Map.of("update", () -> {
+            Flight flight = schedule.get(ThreadLocalRandom.current().nextInt(schedule.size()));
+            finder.add(flight.withAvailableSeats(ThreadLocalRandom.current().nextInt(1, 180)));
+            return finder.size();
+        });
+    }
+
+    /**
+     * Flight loading, concurrent booking, login and profile pictures against a seeded database; an
+     * in-memory H2 database unless {@code flymanagement.db.url} points elsewhere.
+     */
+    public static Map<String, Callable<Object>> database() throws Exception {
+        if (System.getProperty("flymanagement.db.url") == null) {
+            System.setProperty("flymanagement.db.url", "jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        }
+        TestDatabase.createSchemaIfMissing();
+        if (FlightRepository.findAfter(0).size() < FLIGHTS) IndexAdvisorBenchmark.seed(FLIGHTS);
+
+        PasswordHasher.calibrate();
+        BufferedImage photo = syntheticPhoto(3000, 2000);
+        if (UserRepository.findCredentials(BENCH_EMAIL) == null) {
+            ImageIngestor ingestor = ImageIngestor.defaults();
+            DBConnection.register(BENCH_EMAIL, "Bench", "User", BENCH_PASSWORD,
+                    ingestor.encode(ingestor.toAvatar(photo)));
+        }
+        int userId = UserRepository.findCredentials(BENCH_EMAIL).user().getUserId();
+        // Capacity far beyond what any run can book, so the benchmark measures contention, not sell-outs.
+        int bookingFlightId = TestDatabase.seedFlight(50_000_000);
+        AtomicLong seatCounter = new AtomicLong();
+
+        Map<String, Callable<Object>> ops = new HashMap<>();
+        ops.put("loadFlightsAll", () -> FlightRepository.findAfter(0));
+        ops.put("loadFlightById", () -> FlightRepository.findById(1 + ThreadLocalRandom.current().nextInt(FLIGHTS)));
+        ops.put("loadSeatMap", () -> FlightRepository.findSeating(bookingFlightId));
+        ops.put("bookTicket", () -> DBConnection.bookTicket(userId, bookingFlightId, "A" + seatCounter.incrementAndGet()));
+        ops.put("login", () -> {
+            if (DBConnection.login(BENCH_EMAIL, BENCH_PASSWORD) == null) throw new IllegalStateException("login failed");
+            return userId;
+        });
+        ops.put("resizeImage", () -> DBConnection.resizeImage(photo));
+        ops.put("profileImageCold", () -> {
+            byte[] bytes = DBConnection.getProfileImage(userId);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+            return ImageIngestor.downscale(image, 40, 40, BufferedImage.TYPE_INT_ARGB);
+        });
+        return ops;
+    }
+
+    private static FlightCatalog catalog() {
+        FlightCatalog catalog = new FlightCatalog(Long.MAX_VALUE, -1);
+        catalog.putAll(schedule(new Random(42), FLIGHTS, 120));
+        return catalog;
+    }
+
+    /** Random flights of 1-6 hours between the cities, a third of them into or out of Sofia. */
+    static List<Flight> schedule(Random random, int count, int days) {
+        LocalDateTime start = LocalDate.now().atStartOfDay();
+        List<Flight> flights = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int from = random.nextInt(3) == 0 ? 0 : random.nextInt(CITIES.length);
+            int to = (from + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+            if (random.nextBoolean()) {
+                int swap = from;
+                from = to;
+                to = swap;
+            }
+            LocalDateTime departs = start.plusMinutes(random.nextInt(days * 24 * 60));
+            int total = random.nextInt(8) == 0 ? 40 : 180;
+            flights.add(new Flight(i + 1, CITIES[from], CITIES[to], departs, departs.plusMinutes(60 + random.nextInt(300)),
+                    49 + random.nextInt(600), random.nextInt(20) == 0 ? 0 : 1 + random.nextInt(total), total == 40,
+                    total));
+        }
+        return flights;
+    }
+
+    private static BufferedImage syntheticPhoto(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(30, 90, 160), width, height, new Color(240, 200, 120)));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.WHITE);
+        for (int i = 0; i < 200; i++) g.drawOval((i * 37) % width, (i * 53) % height, 80, 80);
+        g.dispose();
+        return image;
+    }
+}
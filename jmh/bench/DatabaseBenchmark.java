@@ -0,0 +1,74 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dflymanagement.db.pool.maxSize=16")
+public class DatabaseBenchmark {
+    private Callable<Object> loadFlightsAll;
+    private Callable<Object> loadFlightById;
+    private Callable<Object> loadSeatMap;
+    private Callable<Object> bookTicket;
+    private Callable<Object> login;
+    private Callable<Object> resizeImage;
+    private Callable<Object> profileImageCold;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<String, Callable<Object>> ops = Workload.of("database");
+        loadFlightsAll = ops.get("loadFlightsAll");
+        loadFlightById = ops.get("loadFlightById");
+        loadSeatMap = ops.get("loadSeatMap");
+        bookTicket = ops.get("bookTicket");
+        login = ops.get("login");
+        resizeImage = ops.get("resizeImage");
+        profileImageCold = ops.get("profileImageCold");
+    }
+
+    @Benchmark
+    public Object loadFlightsAll() throws Exception {
+        return loadFlightsAll.call();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object loadFlightById() throws Exception {
+        return loadFlightById.call();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object loadSeatMap() throws Exception {
+        return loadSeatMap.call();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object bookTicket() throws Exception {
+        return bookTicket.call();
+    }
+
+    @Benchmark
+    public Object login() throws Exception {
+        return login.call();
+    }
+
+    @Benchmark
+    public Object resizeImage() throws Exception {
+        return resizeImage.call();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object profileImageCold() throws Exception {
+        return profileImageCold.call();
+    }
+}
@@ -0,0 +1,49 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FareBenchmark {
+    private Callable<Object> cached;
+    private Callable<Object> quotedPerRow;
+    private Callable<Object> seatsChanged;
+    private Callable<Object> graphUpdate;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<String, Callable<Object>> ops = Workload.of("fares");
+        cached = ops.get("cached");
+        quotedPerRow = ops.get("quotedPerRow");
+        seatsChanged = ops.get("seatsChanged");
+        graphUpdate = Workload.of("connectionGraph").get("update");
+    }
+
+    @Benchmark
+    public Object searchWithCachedFares() throws Exception {
+        return cached.call();
+    }
+
+    @Benchmark
+    public Object searchQuotingEveryRow() throws Exception {
+        return quotedPerRow.call();
+    }
+
+    @Benchmark
+    public Object requoteOnSeatChange() throws Exception {
+        return seatsChanged.call();
+    }
+
+    @Benchmark
+    public Object connectionGraphUpdate() throws Exception {
+        return graphUpdate.call();
+    }
+}
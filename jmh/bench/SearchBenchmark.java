@@ -0,0 +1,88 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SearchBenchmark {
+    private Callable<Object> route;
+    private Callable<Object> routeOnDay;
+    private Callable<Object> destination;
+    private Callable<Object> facets;
+    private Callable<Object> typeAheadOrigin;
+    private Callable<Object> typeAheadDestination;
+    private Callable<Object> typeAheadTypo;
+    private Callable<Object> cheapest;
+    private Callable<Object> earliestArrival;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<String, Callable<Object>> ops = Workload.of("search");
+        route = ops.get("catalogRoute");
+        routeOnDay = ops.get("catalogRouteOnDay");
+        destination = ops.get("catalogDestination");
+        facets = ops.get("facets");
+        typeAheadOrigin = ops.get("typeAheadOrigin");
+        typeAheadDestination = ops.get("typeAheadDestination");
+        typeAheadTypo = ops.get("typeAheadTypo");
+        cheapest = ops.get("connections.CHEAPEST");
+        earliestArrival = ops.get("connections.EARLIEST_ARRIVAL");
+    }
+
+    @Benchmark
+    public Object catalogRoute() throws Exception {
+        return route.call();
+    }
+
+    @Benchmark
+    public Object catalogRouteOnDay() throws Exception {
+        return routeOnDay.call();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object catalogDestination() throws Exception {
+        return destination.call();
+    }
+
+    @Benchmark
+    public Object facets() throws Exception {
+        return facets.call();
+    }
+
+    @Benchmark
+    public Object typeAheadOrigin() throws Exception {
+        return typeAheadOrigin.call();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object typeAheadDestination() throws Exception {
+        return typeAheadDestination.call();
+    }
+
+    @Benchmark
+    public Object typeAheadTypo() throws Exception {
+        return typeAheadTypo.call();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object connectionsCheapest() throws Exception {
+        return cheapest.call();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object connectionsEarliestArrival() throws Exception {
+        return earliestArrival.call();
+    }
+}
@@ -0,0 +1,15 @@
+package bench;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/** Looks up a set of operations in the application's {@code Workloads}, which live in the default package. */
+final class Workload {
+    private Workload() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Callable<Object>> of(String set) throws Exception {
+        return (Map<String, Callable<Object>>) Class.forName("Workloads").getMethod(set).invoke(null);
+    }
+}
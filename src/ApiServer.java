@@ -0,0 +1,436 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** JSON over HTTP in front of {@link BookingService}, for kiosks and web clients. */
+public class ApiServer {
+    private static final Logger LOG = Logger.getLogger(ApiServer.class.getName());
+    private static final int MAX_BODY = 64 * 1024;
+    private static final int MAX_PAGE = 200;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService sweeper;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long sessionTtlMillis = Long.getLong("flymanagement.api.sessionTtlMs", 30 * 60_000L);
+    private final long sessionSweepMillis = Long.getLong("flymanagement.api.sessionSweepMs", 60_000L);
+
+    private record Session(User user, long expiresAt) {
+    }
+
+    public ApiServer(int port) throws IOException {
+        int threads = Integer.getInteger("flymanagement.api.threads", 32);
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 16), r -> {
+            Thread t = new Thread(r, "api-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "api-session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/api/login", exchange -> handle(exchange, "api.login", this::login));
+        server.createContext("/api/flights", exchange -> handle(exchange, "api.flights", this::flights));
+        server.createContext("/api/connections", exchange -> handle(exchange, "api.connections", this::connections));
+        server.createContext("/api/bookings", exchange -> handle(exchange, "api.bookings", this::bookings));
+        server.createContext("/api/metrics", exchange -> handle(exchange, "api.metrics", this::metrics));
+    }
+
+    public void start() {
+        server.start();
+        // Tokens that are never used again are never looked up, so they are swept rather than expired on use.
+        sweeper.scheduleWithFixedDelay(this::expireSessions, sessionSweepMillis, sessionSweepMillis,
+                TimeUnit.MILLISECONDS);
+        LOG.info("API listening on port " + getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        sweeper.shutdown();
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws Exception {
+        SchemaMigrator.migrate();
+        DBConnection.warmUpPool();
+        Metrics.startExport();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("flymanagement.api.port", 8080);
+        new ApiServer(port).start();
+    }
+
+    private interface Handler {
+        Response handle(HttpExchange exchange) throws Exception;
+    }
+
+    private record Response(int status, Object body) {
+    }
+
+    private void handle(HttpExchange exchange, String metric, Handler handler) throws IOException {
+        Response response;
+        try {
+            response = Metrics.time(metric + "." + exchange.getRequestMethod(), () -> handler.handle(exchange));
+        } catch (IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (NoSuchElementException e) {
+            response = error(404, e.getMessage());
+        } catch (SecurityException e) {
+            response = error(401, e.getMessage());
+        } catch (SQLTransientException e) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            response = error(503, e.getMessage());
+        } catch (SQLException e) {
+            if (e.getSQLState() == null) {
+                response = error(409, e.getMessage());
+            } else {
+                LOG.log(Level.WARNING, "Database error on " + exchange.getRequestURI(), e);
+                response = error(500, "Database error");
+            }
+        } catch (Exception e) {
+            LOG.log(Level.WARNING, "Request failed: " + exchange.getRequestURI(), e);
+            response = error(500, "Internal error");
+        }
+        send(exchange, response);
+    }
+
+    private Response login(HttpExchange exchange) throws Exception {
+        requireMethod(exchange, "POST");
+        Map<String, Object> body = readBody(exchange);
+        User user = BookingService.login(string(body, "email"), string(body, "password"));
+        if (user == null) throw new SecurityException("Invalid email or password");
+
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(user, System.currentTimeMillis() + sessionTtlMillis));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("token", token);
+        result.put("userId", user.getUserId());
+        result.put("email", user.getEmail());
+        result.put("firstName", user.getFirstName());
+        result.put("lastName", user.getLastName());
+        return new Response(200, result);
+    }
+
+    private Response flights(HttpExchange exchange) throws Exception {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = query(exchange);
+        LocalDate date = null;
+        if (query.containsKey("date")) {
+            try {
+                date = LocalDate.parse(query.get("date"));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("date must be YYYY-MM-DD");
+            }
+        }
+        Boolean exclusive = query.containsKey("exclusive") ? Boolean.valueOf(query.get("exclusive")) : null;
+        FlightCatalog.Filter filter = new FlightCatalog.Filter(query.get("from"), query.get("to"), date, exclusive);
+
+        List<Flight> flights = BookingService.search(filter);
+        int offset = intParam(query, "offset", 0);
+        int limit = Math.min(intParam(query, "limit", 50), MAX_PAGE);
+        List<Object> items = new ArrayList<>();
+        for (int i = offset; i < flights.size() && items.size() < limit; i++) items.add(flightJson(flights.get(i)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", flights.size());
+        result.put("flights", items);
+        return new Response(200, result);
+    }
+
+    private Response connections(HttpExchange exchange) throws Exception {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = query(exchange);
+        LocalDate date;
+        try {
+            date = LocalDate.parse(query.getOrDefault("date", ""));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date must be YYYY-MM-DD");
+        }
+        ConnectionFinder.Objective objective;
+        try {
+            objective = ConnectionFinder.Objective.valueOf(
+                    query.getOrDefault("objective", "cheapest").toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("objective must be cheapest or earliest_arrival");
+        }
+        ConnectionFinder.Itinerary itinerary = BookingService.connection(query.get("from"), query.get("to"), date,
+                intParam(query, "legs", 3), objective);
+        if (itinerary == null) return error(404, "No itinerary found");
+
+        List<Object> legs = new ArrayList<>();
+        for (Flight leg : itinerary.legs()) legs.add(flightJson(leg));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("price", itinerary.price());
+        result.put("departure", itinerary.departure().toString());
+        result.put("arrival", itinerary.arrival().toString());
+        result.put("legs", legs);
+        return new Response(200, result);
+    }
+
+    private Response bookings(HttpExchange exchange) throws Exception {
+        User user = authenticate(exchange);
+        String path = exchange.getRequestURI().getPath();
+        String rest = path.substring(Math.min(path.length(), "/api/bookings".length()));
+        String method = exchange.getRequestMethod();
+
+        if (rest.isEmpty() || rest.equals("/")) {
+            if (method.equals("GET")) {
+                Map<String, String> query = query(exchange);
+                List<Object> items = new ArrayList<>();
+                for (Booking b : BookingService.bookings(user.getUserId(), intParam(query, "offset", 0),
+                        Math.min(intParam(query, "limit", 50), MAX_PAGE))) {
+                    items.add(bookingJson(b));
+                }
+                return new Response(200, Map.of("bookings", items));
+            }
+            requireMethod(exchange, "POST");
+            Map<String, Object> body = readBody(exchange);
+            Object price = body.get("price");
+            if (price != null && !(price instanceof Double)) throw new IllegalArgumentException("price must be a number");
+            int ticketId = BookingService.book(user.getUserId(), integer(body, "flightId"), string(body, "seat"),
+                    (Double) price);
+            return new Response(201, Map.of("ticketId", ticketId));
+        }
+
+        if (rest.equals("/group")) {
+            requireMethod(exchange, "POST");
+            Map<String, Object> body = readBody(exchange);
+            if (!(body.get("flightIds") instanceof List<?> ids) || ids.isEmpty()) {
+                throw new IllegalArgumentException("flightIds is required");
+            }
+            List<Integer> flightIds = new ArrayList<>();
+            for (Object id : ids) {
+                if (!(id instanceof Double d) || d != Math.rint(d)) throw new IllegalArgumentException("flightIds must be integers");
+                flightIds.add(d.intValue());
+            }
+            List<Double> prices = null;
+            if (body.get("prices") != null) {
+                if (!(body.get("prices") instanceof List<?> quoted)) {
+                    throw new IllegalArgumentException("prices must be a list");
+                }
+                prices = new ArrayList<>();
+                for (Object price : quoted) {
+                    if (!(price instanceof Double d)) throw new IllegalArgumentException("prices must be numbers");
+                    prices.add(d);
+                }
+            }
+            List<Object> items = new ArrayList<>();
+            double total = 0;
+            for (GroupBookingEngine.Ticket t : BookingService.bookGroup(user.getUserId(), flightIds,
+                    integer(body, "passengers"), prices)) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("ticketId", t.ticketId());
+                item.put("flightId", t.flightId());
+                item.put("seat", t.seat());
+                item.put("price", t.fare());
+                items.add(item);
+                total += t.fare();
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("tickets", items);
+            result.put("total", Math.round(total * 100) / 100.0);
+            return new Response(201, result);
+        }
+
+        int ticketId;
+        try {
+            ticketId = Integer.parseInt(rest.substring(1));
+        } catch (NumberFormatException e) {
+            throw new NoSuchElementException("No such resource: " + path);
+        }
+        if (method.equals("DELETE")) {
+            if (BookingService.cancel(user.getUserId(), List.of(ticketId)) == 0) {
+                throw new NoSuchElementException("Booking " + ticketId + " not found");
+            }
+            return new Response(204, null);
+        }
+        requireMethod(exchange, "PUT");
+        Map<String, Object> body = readBody(exchange);
+        BookingService.rebook(user.getUserId(), ticketId, integer(body, "flightId"), string(body, "seat"));
+        return new Response(200, Map.of("ticketId", ticketId));
+    }
+
+    private Response metrics(HttpExchange exchange) {
+        requireMethod(exchange, "GET");
+        Map<String, Object> timers = new LinkedHashMap<>();
+        Metrics.snapshot().forEach((name, s) -> {
+            Map<String, Object> timer = new LinkedHashMap<>();
+            timer.put("count", s.count());
+            timer.put("errors", s.errors());
+            timer.put("meanMicros", s.meanMicros());
+            timer.put("p50Micros", s.p50Micros());
+            timer.put("p99Micros", s.p99Micros());
+            timer.put("maxMicros", s.maxMicros());
+            timers.put(name, timer);
+        });
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timers", timers);
+        result.put("pool", String.valueOf(DBConnection.getPoolStats()));
+        result.put("activeRequests", executor.getActiveCount());
+        result.put("queuedRequests", executor.getQueue().size());
+        result.put("sessions", sessions.size());
+        return new Response(200, result);
+    }
+
+    private User authenticate(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) throw new SecurityException("Missing bearer token");
+        String token = header.substring("Bearer ".length()).trim();
+        Session session = sessions.get(token);
+        long now = System.currentTimeMillis();
+        if (session == null || session.expiresAt() < now) {
+            if (session != null) sessions.remove(token);
+            throw new SecurityException("Session expired, please log in again");
+        }
+        return session.user();
+    }
+
+    private void expireSessions() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(s -> s.expiresAt() < now);
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new IllegalArgumentException(exchange.getRequestMethod() + " is not supported here");
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                if (out.size() + n > MAX_BODY) throw new IllegalArgumentException("Request body too large");
+                out.write(buffer, 0, n);
+            }
+        }
+        if (out.size() == 0) throw new IllegalArgumentException("Request body is required");
+        return Json.parseObject(out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            if (!value.isEmpty()) params.put(key, value);
+        }
+        return params;
+    }
+
+    private static int intParam(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) return defaultValue;
+        try {
+            int n = Integer.parseInt(value);
+            if (n < 0) throw new NumberFormatException();
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a non-negative integer");
+        }
+    }
+
+    private static String string(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof String s)) throw new IllegalArgumentException(name + " is required");
+        return s;
+    }
+
+    private static int integer(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (!(value instanceof Double d) || d != Math.rint(d)) throw new IllegalArgumentException(name + " must be an integer");
+        return d.intValue();
+    }
+
+    private static Map<String, Object> flightJson(Flight f) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("flightId", f.flightId());
+        json.put("from", f.departureCity());
+        json.put("to", f.destinationCity());
+        json.put("departure", f.departureTime().toString());
+        json.put("arrival", f.arrivalTime().toString());
+        json.put("price", f.price());
+        json.put("availableSeats", f.availableSeats());
+        json.put("exclusive", f.exclusive());
+        return json;
+    }
+
+    private static Map<String, Object> bookingJson(Booking b) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("ticketId", b.ticketId());
+        json.put("flightId", b.flightId());
+        json.put("from", b.departureCity());
+        json.put("to", b.destinationCity());
+        json.put("departure", b.departureTime().toString());
+        json.put("seat", b.seatNumber());
+        json.put("exclusive", b.exclusive());
+        return json;
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, Map.of("error", message == null ? "" : message));
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        try (exchange) {
+            if (response.body() == null) {
+                exchange.sendResponseHeaders(response.status(), -1);
+                return;
+            }
+            byte[] bytes = Json.write(response.body()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status(), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
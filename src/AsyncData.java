@@ -0,0 +1,132 @@
+import javax.swing.*;
+import java.awt.Component;
+import java.awt.Cursor;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class AsyncData {
+    public static final long DEFAULT_TIMEOUT_MILLIS = Long.getLong("flymanagement.async.timeoutMs", 15_000L);
+
+    private static final String PENDING_LOADS = "AsyncData.pendingLoads";
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        int threads = Integer.getInteger("flymanagement.async.threads", 8);
+        AtomicInteger counter = new AtomicInteger();
+        EXECUTOR = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Integer.getInteger("flymanagement.async.queue", 256)),
+                r -> {
+                    Thread t = new Thread(r, "data-loader-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private AsyncData() {
+    }
+
+    public static <T> CompletableFuture<T> supply(Callable<T> task) {
+        return supply(task, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public static <T> CompletableFuture<T> supply(Callable<T> task, long timeoutMillis) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> running;
+        try {
+            running = EXECUTOR.submit(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new RejectedExecutionException("Too many pending requests, try again", e));
+            return result;
+        }
+        result.whenComplete((value, error) -> {
+            if (error != null) running.cancel(true);
+        });
+        return result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs {@code task} in the background while {@code owner} shows a busy cursor and hands the outcome
+     * back on the EDT. Cancelled requests deliver nothing.
+     */
+    public static <T> CompletableFuture<T> load(Component owner, Callable<T> task,
+                                                Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+        busy(owner, 1);
+        CompletableFuture<T> future = supply(task);
+        future.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            busy(owner, -1);
+            if (future.isCancelled()) return;
+            if (error == null) {
+                onSuccess.accept(value);
+            } else {
+                Throwable cause = unwrap(error);
+                if (!(cause instanceof CancellationException)) onError.accept(cause);
+            }
+        }));
+        return future;
+    }
+
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    public static String describe(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof TimeoutException) return "The request timed out";
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private static void busy(Component owner, int delta) {
+        if (owner == null) return;
+        Runnable update = () -> {
+            JRootPane root = SwingUtilities.getRootPane(owner);
+            if (root == null) return;
+            Integer pending = (Integer) root.getClientProperty(PENDING_LOADS);
+            int now = Math.max(0, (pending == null ? 0 : pending) + delta);
+            root.putClientProperty(PENDING_LOADS, now);
+            root.setCursor(now > 0 ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        };
+        if (SwingUtilities.isEventDispatchThread()) update.run();
+        else SwingUtilities.invokeLater(update);
+    }
+
+    /**
+     * Keeps only the latest request alive: starting a new one cancels whatever this slot was still running.
+     */
+    public static final class Latest {
+        private CompletableFuture<?> current;
+
+        public synchronized <T> CompletableFuture<T> load(Component owner, Callable<T> task,
+                                                          Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+            if (current != null) current.cancel(true);
+            CompletableFuture<T> future = AsyncData.load(owner, task, onSuccess, onError);
+            current = future;
+            return future;
+        }
+
+        public synchronized void cancel() {
+            if (current != null) current.cancel(true);
+        }
+    }
+}
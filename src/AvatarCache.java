@@ -0,0 +1,106 @@
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Decoded, pre-scaled profile pictures keyed by user and size. */
+public class AvatarCache {
+    private static final long MAX_BYTES = Long.getLong("flymanagement.avatar.cacheBytes", 4L * 1024 * 1024);
+
+    private static final LinkedHashMap<String, ImageIcon> ICONS = new LinkedHashMap<>(32, 0.75f, true);
+    /** One default icon per size, shared by every user without a picture and never evicted. */
+    private static final Map<String, ImageIcon> DEFAULT_ICONS = new HashMap<>();
+    private static long cachedBytes;
+
+    private AvatarCache() {
+    }
+
+    public static void show(JLabel label, User user, int width, int height) {
+        ImageIcon cached = get(user.getUserId(), width, height);
+        if (cached != null) {
+            label.setIcon(cached);
+            return;
+        }
+        label.setIcon(defaultIcon(width, height));
+        AsyncData.load(label, () -> load(user.getUserId(), width, height), label::setIcon, e -> { });
+    }
+
+    public static synchronized ImageIcon get(int userId, int width, int height) {
+        return ICONS.get(key(userId, width, height));
+    }
+
+    static ImageIcon load(int userId, int width, int height) throws Exception {
+        ImageIcon cached = get(userId, width, height);
+        if (cached != null) return cached;
+
+        byte[] bytes = DBConnection.getProfileImage(userId);
+        BufferedImage source = bytes == null ? null : ImageIO.read(new ByteArrayInputStream(bytes));
+        // Users without a picture are cached too, so their avatar is not fetched again on every show.
+        ImageIcon icon = source == null ? defaultIcon(width, height)
+                : new ImageIcon(ImageIngestor.downscale(source, width, height, BufferedImage.TYPE_INT_ARGB));
+        return put(key(userId, width, height), icon);
+    }
+
+    public static ImageIcon defaultIcon(int width, int height) {
+        String size = width + "x" + height;
+        synchronized (AvatarCache.class) {
+            ImageIcon cached = DEFAULT_ICONS.get(size);
+            if (cached != null) return cached;
+        }
+        BufferedImage source = DefaultAvatar.IMAGE;
+        if (source == null) return new ImageIcon();
+        ImageIcon icon = new ImageIcon(ImageIngestor.downscale(source, width, height, BufferedImage.TYPE_INT_ARGB));
+        synchronized (AvatarCache.class) {
+            ImageIcon raced = DEFAULT_ICONS.putIfAbsent(size, icon);
+            if (raced != null) return raced;
+            cachedBytes += sizeOf(icon);
+            return icon;
+        }
+    }
+
+    private static synchronized ImageIcon put(String key, ImageIcon icon) {
+        ImageIcon previous = ICONS.put(key, icon);
+        if (previous != null) cachedBytes -= footprint(previous);
+        cachedBytes += footprint(icon);
+
+        Iterator<Map.Entry<String, ImageIcon>> it = ICONS.entrySet().iterator();
+        while (cachedBytes > MAX_BYTES && it.hasNext()) {
+            Map.Entry<String, ImageIcon> eldest = it.next();
+            if (eldest.getKey().equals(key)) break;
+            cachedBytes -= footprint(eldest.getValue());
+            it.remove();
+        }
+        return icon;
+    }
+
+    /** Bytes a per-user entry adds; a shared default icon was counted once when it was created. */
+    private static long footprint(ImageIcon icon) {
+        return DEFAULT_ICONS.containsValue(icon) ? 0 : sizeOf(icon);
+    }
+
+    private static long sizeOf(ImageIcon icon) {
+        return 4L * icon.getIconWidth() * icon.getIconHeight();
+    }
+
+    private static String key(int userId, int width, int height) {
+        return userId + ":" + width + "x" + height;
+    }
+
+    private static final class DefaultAvatar {
+        private static final BufferedImage IMAGE = read();
+
+        private static BufferedImage read() {
+            try (InputStream in = AvatarCache.class.getResourceAsStream("/default_avatar.png")) {
+                return in == null ? null : ImageIO.read(in);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
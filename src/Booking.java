@@ -0,0 +1,28 @@
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+public record Booking(
+        int ticketId,
+        int flightId,
+        String departureCity,
+        String destinationCity,
+        LocalDateTime departureTime,
+        String seatNumber,
+        boolean exclusive
+) {
+    public static final String COLUMNS = "t.ticket_id, f.flight_id, f.departure_city, f.destination_city, " +
+            "f.departure_time, t.seat_number, f.is_exclusive";
+
+    public static Booking from(ResultSet rs) throws SQLException {
+        return new Booking(
+                rs.getInt("ticket_id"),
+                rs.getInt("flight_id"),
+                rs.getString("departure_city"),
+                rs.getString("destination_city"),
+                rs.getTimestamp("departure_time").toLocalDateTime(),
+                rs.getString("seat_number"),
+                rs.getBoolean("is_exclusive")
+        );
+    }
+}
@@ -0,0 +1,169 @@
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/** The booking operations with their validation, shared by the desktop frames and the HTTP API. */
+public class BookingService {
+    public static final String EMAIL_PATTERN = "^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$";
+    public static final String SEAT_PATTERN = "^[A-Z][0-9]+$";
+
+    public static final int MAX_LEGS = 4;
+    public static final int MAX_GROUP = Integer.getInteger("flymanagement.group.maxPassengers", 50);
+    static final Duration MIN_CONNECTION =
+            Duration.ofMinutes(Long.getLong("flymanagement.connections.minConnectionMinutes", 45L));
+
+    private BookingService() {
+    }
+
+    public static User login(String email, String password) throws SQLException {
+        if (email == null || !email.trim().matches(EMAIL_PATTERN)) {
+            throw new IllegalArgumentException("Invalid email format");
+        }
+        if (password == null || password.isEmpty()) throw new IllegalArgumentException("Password is required");
+        return DBConnection.login(email.trim(), password);
+    }
+
+    public static List<Flight> search(FlightCatalog.Filter filter) throws SQLException {
+        FlightCatalog catalog = FlightCatalog.shared();
+        catalog.refreshIfStale();
+        return catalog.query(filter);
+    }
+
+    /**
+     * The best itinerary between two cities departing on {@code date}, or {@code null}; the legs are at
+     * least {@code flymanagement.connections.minConnectionMinutes} (default 45) apart.
+     */
+    public static ConnectionFinder.Itinerary connection(String from, String to, LocalDate date, int maxLegs,
+                                                        ConnectionFinder.Objective objective) throws SQLException {
+        if (from == null || to == null || date == null) throw new IllegalArgumentException("from, to and date are required");
+        if (maxLegs < 1 || maxLegs > MAX_LEGS) throw new IllegalArgumentException("legs must be between 1 and " + MAX_LEGS);
+        FlightCatalog catalog = FlightCatalog.shared();
+        catalog.refreshIfStale();
+        LocalDateTime start = date.atStartOfDay();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime earliest = start.isBefore(now) ? now : start;
+        Duration window = Duration.between(earliest, date.plusDays(1).atStartOfDay());
+        if (window.isNegative()) return null;
+        return Metrics.time("service.connection", () -> catalog.connections().find(from, to, earliest, window,
+                maxLegs, MIN_CONNECTION, objective));
+    }
+
+    public static List<Booking> bookings(int userId, int offset, int limit) throws SQLException {
+        return TicketRepository.findBookings(userId, offset, limit);
+    }
+
+    /** Returns the new ticket id. */
+    public static int book(int userId, int flightId, String seat) throws SQLException {
+        return book(userId, flightId, seat, null);
+    }
+
+    /** Books at {@code quotedFare}, the fare the customer was shown, or fails if it has changed since. */
+    public static int book(int userId, int flightId, String seat, Double quotedFare) throws SQLException {
+        if (quotedFare != null && !(quotedFare >= 0)) throw new IllegalArgumentException("price must not be negative");
+        String normalized = checkSeat(flightId, seat);
+        return Metrics.time("service.book",
+                () -> SeatReservationEngine.reserve(userId, flightId, normalized, quotedFare));
+    }
+
+    /** Holds the first free seat on the flight while the customer chooses; see {@link SeatHoldService}. */
+    public static SeatHoldService.Hold hold(int userId, int flightId) throws SQLException {
+        return Metrics.time("service.hold", () -> SeatHoldService.place(userId, flightId, null));
+    }
+
+    /** Books {@code seat} on the held flight at the held fare; the held seat itself needs no further check. */
+    public static int book(int userId, SeatHoldService.Hold hold, String seat, Double quotedFare) throws SQLException {
+        if (hold.userId() != userId) throw new NoSuchElementException("Hold " + hold.holdId() + " not found");
+        String normalized = normalizeSeat(seat);
+        String chosen = normalized.equals(hold.seat()) ? normalized : checkSeat(hold.flightId(), normalized);
+        return Metrics.time("service.book", () -> SeatHoldService.book(hold, chosen, quotedFare));
+    }
+
+    public static void releaseHold(SeatHoldService.Hold hold) throws SQLException {
+        SeatHoldService.release(hold);
+    }
+
+    /**
+     * Books {@code passengers} seats on each of {@code flightIds}, all or nothing, choosing seats side by side
+     * where possible. Groups are limited to {@code flymanagement.group.maxPassengers} (default 50).
+     */
+    public static List<GroupBookingEngine.Ticket> bookGroup(int userId, List<Integer> flightIds, int passengers)
+            throws SQLException {
+        return bookGroup(userId, flightIds, passengers, null);
+    }
+
+    /** As above at {@code quotedFares}, the per-seat fare shown for each flight, or fails if any has changed. */
+    public static List<GroupBookingEngine.Ticket> bookGroup(int userId, List<Integer> flightIds, int passengers,
+                                                            List<Double> quotedFares) throws SQLException {
+        if (quotedFares != null && quotedFares.size() != flightIds.size()) {
+            throw new IllegalArgumentException("One price is required per flight");
+        }
+        List<GroupBookingEngine.Leg> legs = new ArrayList<>(flightIds.size());
+        for (int i = 0; i < flightIds.size(); i++) {
+            Double fare = quotedFares == null ? null : quotedFares.get(i);
+            legs.add(new GroupBookingEngine.Leg(flightIds.get(i), passengers, null, fare));
+        }
+        return bookGroup(userId, legs);
+    }
+
+    /** As above with seats chosen per leg; a leg without seats gets them assigned. */
+    public static List<GroupBookingEngine.Ticket> bookGroup(int userId, List<GroupBookingEngine.Leg> legs)
+            throws SQLException {
+        List<GroupBookingEngine.Leg> checked = new ArrayList<>(legs.size());
+        for (GroupBookingEngine.Leg leg : legs) {
+            if (leg.quotedFare() != null && !(leg.quotedFare() >= 0)) {
+                throw new IllegalArgumentException("price must not be negative");
+            }
+            List<String> seats = null;
+            if (leg.seats() != null) {
+                seats = new ArrayList<>(leg.seats().size());
+                for (String seat : leg.seats()) seats.add(checkSeat(leg.flightId(), seat));
+            }
+            checked.add(new GroupBookingEngine.Leg(leg.flightId(), leg.passengers(), seats, leg.quotedFare()));
+        }
+        GroupBookingEngine.validate(checked, MAX_GROUP);
+        return Metrics.time("service.bookGroup", () -> GroupBookingEngine.book(userId, checked));
+    }
+
+    public static void rebook(int userId, int ticketId, int newFlightId, String seat) throws SQLException {
+        requireOwner(userId, ticketId);
+        String normalized = checkSeat(newFlightId, seat);
+        DBConnection.updateBooking(ticketId, newFlightId, normalized);
+    }
+
+    /** Cancels those of {@code ticketIds} that belong to the user; returns how many were cancelled. */
+    public static int cancel(int userId, List<Integer> ticketIds) throws SQLException {
+        return Metrics.time("service.cancel", () -> CancellationService.cancelTickets(userId, ticketIds));
+    }
+
+    public static String normalizeSeat(String seat) {
+        String normalized = seat == null ? "" : seat.trim().toUpperCase(Locale.ROOT);
+        if (!normalized.matches(SEAT_PATTERN)) {
+            throw new IllegalArgumentException("Invalid seat format, expected a letter followed by a row number, e.g. A12");
+        }
+        return normalized;
+    }
+
+    /**
+     * Checks the seat against the flight's layout. The cached map may be a minute old, so whether the seat is
+     * free is left to the engines, which check it under the flight row lock.
+     */
+    private static String checkSeat(int flightId, String seat) throws SQLException {
+        String normalized = normalizeSeat(seat);
+        SeatMap seatMap = SeatMapRegistry.get(flightId);
+        if (!seatMap.exists(normalized)) {
+            throw new IllegalArgumentException("Seat " + normalized + " does not exist on flight BA" + flightId
+                    + " (rows 1-" + seatMap.getRows() + ", columns " + seatMap.getColumns() + ")");
+        }
+        return normalized;
+    }
+
+    private static void requireOwner(int userId, int ticketId) throws SQLException {
+        Integer owner = TicketRepository.findOwner(ticketId);
+        if (owner == null || owner != userId) throw new NoSuchElementException("Booking " + ticketId + " not found");
+    }
+}
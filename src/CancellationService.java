@@ -0,0 +1,246 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Cancels tickets and gives their seats back in the same transaction. */
+public class CancellationService {
+    private static final Logger LOG = Logger.getLogger(CancellationService.class.getName());
+    private static final int RECONCILE_BATCH = 20;
+
+    private static ScheduledExecutorService reconciler;
+
+    private CancellationService() {
+    }
+
+    public static boolean cancel(int ticketId) throws SQLException {
+        return cancelWhere("ticket_id = ?", List.of(ticketId)) > 0;
+    }
+
+    /** Cancels the given tickets that belong to {@code userId}; others are ignored. */
+    public static int cancelTickets(int userId, List<Integer> ticketIds) throws SQLException {
+        if (ticketIds.isEmpty()) return 0;
+        List<Object> params = new ArrayList<>();
+        params.add(userId);
+        params.addAll(ticketIds);
+        return cancelWhere("user_id = ? AND ticket_id IN (" + Transactions.placeholders(ticketIds.size()) + ")",
+                params);
+    }
+
+    public static int cancelByFlight(int flightId) throws SQLException {
+        return cancelWhere("flight_id = ?", List.of(flightId));
+    }
+
+    public static int cancelByUser(int userId) throws SQLException {
+        return cancelWhere("user_id = ?", List.of(userId));
+    }
+
+    private static int cancelWhere(String predicate, List<Object> params) throws SQLException {
+        return Transactions.retry(() -> tryCancel(predicate, params));
+    }
+
+    private static int tryCancel(String predicate, List<Object> params) throws SQLException {
+        List<Ticket> tickets = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                TreeSet<Integer> flightIds = new TreeSet<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT DISTINCT flight_id FROM tickets WHERE " + predicate)) {
+                    Transactions.bind(pstmt, params, 1);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) flightIds.add(rs.getInt(1));
+                    }
+                }
+                if (flightIds.isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                while (true) {
+                    // Lock the flights first, in id order, as bookings do; the rows themselves are not needed.
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "SELECT flight_id FROM flights WHERE flight_id IN (" +
+                                    Transactions.placeholders(flightIds.size()) + ") ORDER BY flight_id FOR UPDATE")) {
+                        Transactions.bind(pstmt, new ArrayList<>(flightIds), 1);
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            while (rs.next()) {
+                            }
+                        }
+                    }
+
+                    TreeSet<Integer> found = new TreeSet<>();
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "SELECT ticket_id, user_id, flight_id, seat_number FROM tickets WHERE " + predicate +
+                                    " FOR UPDATE")) {
+                        Transactions.bind(pstmt, params, 1);
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            while (rs.next()) {
+                                tickets.add(new Ticket(rs.getInt("ticket_id"), rs.getInt("user_id"),
+                                        rs.getInt("flight_id"), rs.getString("seat_number")));
+                                found.add(rs.getInt("flight_id"));
+                            }
+                        }
+                    }
+                    if (flightIds.containsAll(found)) break;
+
+                    // A rebooking moved a ticket onto a flight read before it committed. Taking that flight's
+                    // lock now would break the id order, so start over with every flight locked up front.
+                    conn.rollback();
+                    tickets.clear();
+                    flightIds.addAll(found);
+                }
+
+                Map<Integer, Integer> released = new TreeMap<>();
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM tickets WHERE ticket_id = ?")) {
+                    for (Ticket ticket : tickets) {
+                        pstmt.setInt(1, ticket.ticketId());
+                        pstmt.addBatch();
+                        released.merge(ticket.flightId(), 1, Integer::sum);
+                    }
+                    pstmt.executeBatch();
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE flights SET available_seats = available_seats + ?, seat_version = seat_version + 1 " +
+                                "WHERE flight_id = ?")) {
+                    for (Map.Entry<Integer, Integer> entry : released.entrySet()) {
+                        pstmt.setInt(1, entry.getValue());
+                        pstmt.setInt(2, entry.getKey());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+
+                Map<Integer, DomainEvent.SeatCount> seats = FlightRepository.findSeatCounts(conn, released.keySet());
+                List<DomainEvent> events = new ArrayList<>(tickets.size());
+                for (Ticket ticket : tickets) {
+                    events.add(DomainEvent.cancelled(ticket.ticketId(), ticket.userId(), ticket.flightId(),
+                            ticket.seat(), seats.get(ticket.flightId())));
+                }
+                ChangeLog.append(conn, events);
+                conn.commit();
+
+                DomainEvents.publish(events);
+                return tickets.size();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Recomputes {@code available_seats} from the tickets and seat holds for every flight whose capacity is
+     * known, a few flights per transaction. Returns the number of flights that had drifted.
+     */
+    public static int reconcile() throws SQLException {
+        List<Integer> drifted = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT flight_id FROM flights WHERE total_seats IS NOT NULL " +
+                     "AND available_seats <> GREATEST(0, total_seats - " +
+                     "(SELECT COUNT(*) FROM tickets t WHERE t.flight_id = flights.flight_id) - " +
+                     "(SELECT COUNT(*) FROM seat_holds h WHERE h.flight_id = flights.flight_id)) " +
+                     "ORDER BY flight_id")) {
+            while (rs.next()) drifted.add(rs.getInt(1));
+        }
+
+        int fixed = 0;
+        for (int i = 0; i < drifted.size(); i += RECONCILE_BATCH) {
+            List<Integer> batch = drifted.subList(i, Math.min(drifted.size(), i + RECONCILE_BATCH));
+            fixed += Transactions.retry(() -> tryReconcile(batch));
+        }
+        if (fixed > 0) LOG.warning("Reconciled available seats on " + fixed + " flight(s)");
+        return fixed;
+    }
+
+    /** Rechecks the candidates under their row locks; a booking may have settled them since they were found. */
+    private static int tryReconcile(List<Integer> flightIds) throws SQLException {
+        String flightList = Transactions.placeholders(flightIds.size());
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Map<Integer, int[]> flights = new TreeMap<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT flight_id, total_seats, available_seats FROM flights WHERE flight_id IN (" +
+                                flightList + ") AND total_seats IS NOT NULL ORDER BY flight_id FOR UPDATE")) {
+                    Transactions.bind(pstmt, flightIds, 1);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) flights.put(rs.getInt(1), new int[]{rs.getInt(2), rs.getInt(3)});
+                    }
+                }
+
+                // Every writer of tickets and holds takes the flight row lock first, so these counts are settled.
+                Map<Integer, Integer> taken = new TreeMap<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT flight_id, COUNT(*) FROM tickets WHERE flight_id IN (" + flightList + ") " +
+                                "GROUP BY flight_id UNION ALL SELECT flight_id, COUNT(*) FROM seat_holds " +
+                                "WHERE flight_id IN (" + flightList + ") GROUP BY flight_id")) {
+                    Transactions.bind(pstmt, flightIds, Transactions.bind(pstmt, flightIds, 1));
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) taken.merge(rs.getInt(1), rs.getInt(2), Integer::sum);
+                    }
+                }
+
+                List<Integer> fixed = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE flights SET available_seats = ?, seat_version = seat_version + 1 " +
+                                "WHERE flight_id = ?")) {
+                    for (Map.Entry<Integer, int[]> flight : flights.entrySet()) {
+                        int available = Math.max(0, flight.getValue()[0] - taken.getOrDefault(flight.getKey(), 0));
+                        if (available == flight.getValue()[1]) continue;
+                        pstmt.setInt(1, available);
+                        pstmt.setInt(2, flight.getKey());
+                        pstmt.addBatch();
+                        fixed.add(flight.getKey());
+                    }
+                    if (fixed.isEmpty()) {
+                        conn.rollback();
+                        return 0;
+                    }
+                    pstmt.executeBatch();
+                }
+
+                Map<Integer, DomainEvent.SeatCount> seats = FlightRepository.findSeatCounts(conn, fixed);
+                List<DomainEvent> events = new ArrayList<>(fixed.size());
+                for (int flightId : fixed) events.add(DomainEvent.reconciled(flightId, seats.get(flightId)));
+                ChangeLog.append(conn, events);
+                conn.commit();
+
+                DomainEvents.publish(events);
+                return fixed.size();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    public static synchronized void startReconciler() {
+        long interval = Long.getLong("flymanagement.reconcile.intervalMs", 15 * 60_000L);
+        if (reconciler != null || interval <= 0) return;
+        reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "seat-reconciler");
+            t.setDaemon(true);
+            return t;
+        });
+        reconciler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (SQLException | RuntimeException e) {
+                LOG.log(Level.WARNING, "Seat reconciliation failed", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private record Ticket(int ticketId, int userId, int flightId, String seat) {
+    }
+}
@@ -0,0 +1,64 @@
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/** Pages filtered flights out of the in-memory {@link FlightCatalog}. */
+public class CatalogFlightSource implements PagedTableModel.PageSource<Flight> {
+    private static final List<Comparator<Flight>> SORT_KEYS = List.of(
+            Comparator.comparingInt(Flight::flightId),
+            Comparator.comparing(Flight::departureCity),
+            Comparator.comparing(Flight::destinationCity),
+            Comparator.comparing(Flight::departureTime),
+            Comparator.comparing(Flight::arrivalTime),
+            Comparator.comparingDouble(Flight::price),
+            Comparator.comparingInt(Flight::availableSeats),
+            Comparator.comparing(Flight::exclusive)
+    );
+
+    private final FlightCatalog.Filter filter;
+    private List<Flight> sorted;
+    private int sortedBy = -1;
+    private boolean sortedAscending;
+    private long sortedVersion;
+
+    public CatalogFlightSource(FlightCatalog.Filter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public synchronized int count() throws SQLException {
+        FlightCatalog.shared().refreshIfStale();
+        sorted = null;
+        return FlightCatalog.shared().query(filter).size();
+    }
+
+    @Override
+    public synchronized List<Flight> fetch(int offset, Flight after, int limit, int sortColumn, boolean ascending) {
+        Comparator<Flight> order = comparator(sortColumn, ascending);
+        FlightCatalog catalog = FlightCatalog.shared();
+        long version = catalog.version();
+        if (sorted == null || sortedBy != sortColumn || sortedAscending != ascending || sortedVersion != version) {
+            sorted = new ArrayList<>(catalog.query(filter));
+            sorted.sort(order);
+            sortedBy = sortColumn;
+            sortedAscending = ascending;
+            sortedVersion = version;
+        }
+
+        int start = offset;
+        if (after != null) {
+            int found = Collections.binarySearch(sorted, after, order);
+            start = found >= 0 ? found + 1 : -found - 1;
+        }
+        if (start >= sorted.size()) return List.of();
+        return List.copyOf(sorted.subList(start, Math.min(sorted.size(), start + limit)));
+    }
+
+    private static Comparator<Flight> comparator(int sortColumn, boolean ascending) {
+        Comparator<Flight> key = SORT_KEYS.get(sortColumn);
+        if (!ascending) key = key.reversed();
+        return key.thenComparingInt(Flight::flightId);
+    }
+}
@@ -0,0 +1,191 @@
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Shares {@link DomainEvent}s between terminals through the {@code change_log} table. */
+public class ChangeLog {
+    private static final Logger LOG = Logger.getLogger(ChangeLog.class.getName());
+    private static final String ORIGIN = UUID.randomUUID().toString();
+    private static final long RECHECK_MILLIS = 30_000;
+    /**
+     * Auto-increment ids become visible out of order when transactions commit out of order, so each poll
+     * also re-reads this many ids below the watermark and skips the ones already seen.
+     */
+    static final int LOOKBACK = 200;
+    private static final int BATCH = 500;
+
+    private static volatile boolean available;
+    private static volatile long checkedAt;
+
+    private static ScheduledExecutorService poller;
+    private static long watermark = -1;
+    private static final LinkedHashSet<Long> seen = new LinkedHashSet<>();
+
+    private ChangeLog() {
+    }
+
+    /** Adds {@code events} to the log as part of the caller's open transaction. */
+    public static void append(Connection conn, List<DomainEvent> events) throws SQLException {
+        if (events.isEmpty()) return;
+        if (!isAvailable(conn)) {
+            // Other terminals will not see these until their next full refresh.
+            LOG.warning("change_log is not available (schema before V9?); dropped " + events.size()
+                    + " event(s) starting with " + events.get(0).type());
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO change_log (event_type, ticket_id, user_id, flight_id, seat_number, " +
+                        "from_flight_id, from_seat, available_seats, seat_version, from_available_seats, " +
+                        "from_seat_version, origin) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (DomainEvent event : events) {
+                pstmt.setString(1, event.type().name());
+                pstmt.setInt(2, event.ticketId());
+                pstmt.setInt(3, event.userId());
+                pstmt.setInt(4, event.flightId());
+                pstmt.setString(5, event.seat());
+                pstmt.setInt(6, event.fromFlightId());
+                pstmt.setString(7, event.fromSeat());
+                bindSeats(pstmt, 8, event.seats());
+                bindSeats(pstmt, 10, event.fromSeats());
+                pstmt.setString(12, ORIGIN);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void bindSeats(PreparedStatement pstmt, int index, DomainEvent.SeatCount seats)
+            throws SQLException {
+        if (seats == null) {
+            pstmt.setNull(index, Types.INTEGER);
+            pstmt.setNull(index + 1, Types.BIGINT);
+        } else {
+            pstmt.setInt(index, seats.available());
+            pstmt.setLong(index + 1, seats.version());
+        }
+    }
+
+    private static DomainEvent.SeatCount seats(ResultSet rs, String prefix) throws SQLException {
+        int available = rs.getInt(prefix + "available_seats");
+        if (rs.wasNull()) return null;
+        long version = rs.getLong(prefix + "seat_version");
+        return rs.wasNull() ? null : new DomainEvent.SeatCount(available, version);
+    }
+
+    /** The newest committed change id, or -1 while the table is not there. */
+    static long lastChangeId(Connection conn) throws SQLException {
+        if (!isAvailable(conn)) return -1;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(change_id), 0) FROM change_log")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    public static synchronized void startPolling() {
+        long interval = Long.getLong("flymanagement.changelog.pollMs", 2_000L);
+        if (poller != null || interval <= 0) return;
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "change-log-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (SQLException | RuntimeException e) {
+                LOG.log(Level.FINE, "Change log poll failed", e);
+            }
+        }, 0, interval, TimeUnit.MILLISECONDS);
+        long retentionMillis = Long.getLong("flymanagement.changelog.retentionMs", TimeUnit.DAYS.toMillis(1));
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                prune(retentionMillis);
+            } catch (SQLException | RuntimeException e) {
+                LOG.log(Level.FINE, "Change log prune failed", e);
+            }
+        }, 1, 60, TimeUnit.MINUTES);
+    }
+
+    /** Publishes rows from other terminals committed since the last poll; returns how many. */
+    static int poll() throws SQLException {
+        List<DomainEvent> events = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            if (!isAvailable(conn)) return 0;
+            if (watermark < 0) {
+                watermark = lastChangeId(conn);
+                return 0;
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "SELECT change_id, event_type, ticket_id, user_id, flight_id, seat_number, from_flight_id, " +
+                            "from_seat, available_seats, seat_version, from_available_seats, from_seat_version, " +
+                            "origin FROM change_log WHERE change_id > ? ORDER BY change_id LIMIT ?")) {
+                pstmt.setLong(1, Math.max(0, watermark - LOOKBACK));
+                pstmt.setInt(2, BATCH + LOOKBACK);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        long id = rs.getLong("change_id");
+                        watermark = Math.max(watermark, id);
+                        if (!seen.add(id) || ORIGIN.equals(rs.getString("origin"))) continue;
+                        events.add(new DomainEvent(
+                                DomainEvent.Type.valueOf(rs.getString("event_type").toUpperCase(Locale.ROOT)),
+                                rs.getInt("ticket_id"),
+                                rs.getInt("user_id"),
+                                rs.getInt("flight_id"),
+                                rs.getString("seat_number"),
+                                rs.getInt("from_flight_id"),
+                                rs.getString("from_seat"),
+                                seats(rs, ""),
+                                seats(rs, "from_")));
+                    }
+                }
+            }
+        }
+        while (seen.size() > LOOKBACK * 4) seen.remove(seen.iterator().next());
+
+        if (!events.isEmpty()) DomainEvents.publish(events);
+        return events.size();
+    }
+
+    private static void prune(long retentionMillis) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM change_log WHERE created_at < ?")) {
+            if (!isAvailable(conn)) return;
+            pstmt.setTimestamp(1, new Timestamp(System.currentTimeMillis() - retentionMillis));
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static boolean isAvailable(Connection conn) throws SQLException {
+        if (available) return true;
+        long now = System.currentTimeMillis();
+        if (now - checkedAt < RECHECK_MILLIS) return false;
+        checkedAt = now;
+        DatabaseMetaData meta = conn.getMetaData();
+        // The seat count columns come with V9; V5 alone is not enough to append.
+        for (String[] names : new String[][]{{"change_log", "seat_version"}, {"CHANGE_LOG", "SEAT_VERSION"}}) {
+            try (ResultSet rs = meta.getColumns(null, null, names[0], names[1])) {
+                if (rs.next()) {
+                    available = true;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,88 @@
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/** Turns a city filter combo into a type-ahead field. */
+public class CityTypeAhead {
+    private static final int MAX_SUGGESTIONS = 15;
+
+    private final JComboBox<String> combo;
+    private final JTextComponent editor;
+    private final BiFunction<String, Integer, List<String>> suggestions;
+    private boolean adjusting;
+
+    public CityTypeAhead(JComboBox<String> combo, BiFunction<String, Integer, List<String>> suggestions) {
+        this.combo = combo;
+        this.suggestions = suggestions;
+        combo.setEditable(true);
+        editor = (JTextComponent) combo.getEditor().getEditorComponent();
+        editor.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                typed();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                typed();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+    }
+
+    public boolean isAdjusting() {
+        return adjusting;
+    }
+
+    /** The typed text, or {@code null} when the field is empty. */
+    public String getText() {
+        String text = editor.getText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    public void clear() {
+        adjusting = true;
+        try {
+            editor.setText("");
+            combo.setSelectedItem(null);
+        } finally {
+            adjusting = false;
+        }
+        refresh();
+    }
+
+    /** Re-runs the suggestions for the current text, e.g. after the other filter changed. */
+    public void refresh() {
+        String text = editor.getText();
+        int caret = editor.getCaretPosition();
+        List<String> cities = Metrics.time("ui.typeAhead", () -> suggestions.apply(text, MAX_SUGGESTIONS));
+
+        adjusting = true;
+        try {
+            DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
+            model.addElement(null);
+            for (String city : cities) model.addElement(city);
+            combo.setModel(model);
+            // Setting the model puts the selected item into the editor; keep what the user typed.
+            editor.setText(text);
+            editor.setCaretPosition(Math.min(caret, text.length()));
+        } finally {
+            adjusting = false;
+        }
+        if (combo.isShowing() && editor.hasFocus()) combo.setPopupVisible(!cities.isEmpty() && !text.isBlank());
+    }
+
+    private void typed() {
+        if (adjusting) return;
+        // The document cannot be changed from inside its own listener.
+        SwingUtilities.invokeLater(() -> {
+            if (!adjusting) refresh();
+        });
+    }
+}
@@ -0,0 +1,300 @@
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/** Plans itineraries with connections over an in-memory graph of the schedule. */
+public class ConnectionFinder {
+    private static final long MAX_LAYOVER_MINUTES =
+            Long.getLong("flymanagement.connections.maxLayoverMinutes", 24 * 60L);
+
+    public enum Objective {CHEAPEST, EARLIEST_ARRIVAL}
+
+    public record Itinerary(List<Flight> legs, double price) {
+        public LocalDateTime departure() {
+            return legs.get(0).departureTime();
+        }
+
+        public LocalDateTime arrival() {
+            return legs.get(legs.size() - 1).arrivalTime();
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> cityIds = new HashMap<>();
+    private final Map<Integer, Integer> indexByFlightId = new HashMap<>();
+
+    private int size;
+    private Flight[] flights = new Flight[1024];
+    private int[] origin = new int[1024];
+    private int[] destination = new int[1024];
+    private int[] departs = new int[1024];
+    private int[] arrives = new int[1024];
+    private double[] price = new double[1024];
+    private int[] seats = new int[1024];
+
+    /** Per city: departing flight indices and their departure minutes, both sorted by departure. */
+    private int[][] departuresByCity = new int[64][];
+    private int[][] departureTimesByCity = new int[64][];
+    private int[] departureCount = new int[64];
+
+    private final ThreadLocal<Workspace> workspaces = new ThreadLocal<>();
+
+    /** Adds a flight, or takes the seat count and fare of one already in the graph. */
+    public void add(Flight flight) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = indexByFlightId.get(flight.flightId());
+            if (existing != null) {
+                int i = existing;
+                flights[i] = flight;
+                price[i] = flight.price();
+                seats[i] = flight.availableSeats();
+                int from = cityId(flight.departureCity());
+                int departure = minutes(flight.departureTime());
+                if (from != origin[i] || departure != departs[i]) {
+                    removeDeparture(origin[i], i);
+                    origin[i] = from;
+                    departs[i] = departure;
+                    insertDeparture(from, i);
+                }
+                destination[i] = cityId(flight.destinationCity());
+                arrives[i] = minutes(flight.arrivalTime());
+                return;
+            }
+            if (size == flights.length) grow();
+            int i = size++;
+            flights[i] = flight;
+            origin[i] = cityId(flight.departureCity());
+            destination[i] = cityId(flight.destinationCity());
+            departs[i] = minutes(flight.departureTime());
+            arrives[i] = minutes(flight.arrivalTime());
+            price[i] = flight.price();
+            seats[i] = flight.availableSeats();
+            indexByFlightId.put(flight.flightId(), i);
+            insertDeparture(origin[i], i);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The best itinerary from {@code from} to {@code to} whose first leg departs between {@code earliest}
+     * and {@code earliest + window}, with at most {@code maxLegs} legs and at least {@code minConnection}
+     * between legs, or {@code null} if there is none. Sold-out flights are skipped.
+     */
+    public Itinerary find(String from, String to, LocalDateTime earliest, Duration window, int maxLegs,
+                          Duration minConnection, Objective objective) {
+        if (maxLegs < 1) throw new IllegalArgumentException("maxLegs must be at least 1");
+        lock.readLock().lock();
+        try {
+            Integer source = cityIds.get(from);
+            Integer target = cityIds.get(to);
+            if (source == null || target == null || source.equals(target)) return null;
+            return search(source, target, minutes(earliest), (int) window.toMinutes(), maxLegs,
+                    (int) minConnection.toMinutes(), objective);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Itinerary search(int source, int target, int earliest, int window, int maxLegs, int minConnection,
+                             Objective objective) {
+        Workspace ws = workspace(maxLegs);
+        int stamp = ++ws.stamp;
+
+        // Round 1: departures from the origin inside the window.
+        int[] frontier = ws.frontier;
+        int frontierSize = 0;
+        int count = departureCount[source];
+        int[] times = departureTimesByCity[source];
+        for (int d = lowerBound(times, count, earliest); d < count && times[d] <= earliest + window; d++) {
+            int f = departuresByCity[source][d];
+            if (seats[f] <= 0) continue;
+            ws.best[f] = price[f];
+            ws.bestStamp[f] = stamp;
+            ws.cost[0][f] = price[f];
+            ws.parent[0][f] = -1;
+            ws.roundStamp[0][f] = stamp;
+            frontier[frontierSize++] = f;
+        }
+
+        int bestFlight = -1;
+        int bestRound = -1;
+        for (int round = 0; ; round++) {
+            for (int n = 0; n < frontierSize; n++) {
+                int f = frontier[n];
+                if (destination[f] != target) continue;
+                if (bestFlight < 0 || better(objective, f, ws.cost[round][f], bestFlight, ws.cost[bestRound][bestFlight])) {
+                    bestFlight = f;
+                    bestRound = round;
+                }
+            }
+            if (round + 1 == maxLegs || frontierSize == 0) break;
+
+            int[] next = ws.nextFrontier;
+            int nextSize = 0;
+            int nextRound = round + 1;
+            for (int n = 0; n < frontierSize; n++) {
+                int f = frontier[n];
+                int city = destination[f];
+                if (city == target || city == source) continue;
+                double base = ws.cost[round][f];
+                int ready = arrives[f] + minConnection;
+                int[] cityTimes = departureTimesByCity[city];
+                int cityCount = departureCount[city];
+                for (int d = lowerBound(cityTimes, cityCount, ready);
+                     d < cityCount && cityTimes[d] <= arrives[f] + MAX_LAYOVER_MINUTES; d++) {
+                    int g = departuresByCity[city][d];
+                    if (seats[g] <= 0) continue;
+                    double total = base + price[g];
+                    if (ws.bestStamp[g] == stamp && total >= ws.best[g]) continue;
+                    ws.best[g] = total;
+                    ws.bestStamp[g] = stamp;
+                    if (ws.roundStamp[nextRound][g] != stamp) {
+                        ws.roundStamp[nextRound][g] = stamp;
+                        next[nextSize++] = g;
+                    }
+                    ws.cost[nextRound][g] = total;
+                    ws.parent[nextRound][g] = f;
+                }
+            }
+            ws.nextFrontier = frontier;
+            ws.frontier = next;
+            frontier = next;
+            frontierSize = nextSize;
+        }
+        if (bestFlight < 0) return null;
+
+        List<Flight> legs = new ArrayList<>(bestRound + 1);
+        for (int round = bestRound, f = bestFlight; round >= 0; f = ws.parent[round][f], round--) {
+            legs.add(flights[f]);
+        }
+        Collections.reverse(legs);
+        return new Itinerary(List.copyOf(legs), ws.cost[bestRound][bestFlight]);
+    }
+
+    private boolean better(Objective objective, int f, double cost, int g, double gCost) {
+        if (objective == Objective.CHEAPEST) {
+            return cost < gCost || (cost == gCost && arrives[f] < arrives[g]);
+        }
+        return arrives[f] < arrives[g] || (arrives[f] == arrives[g] && cost < gCost);
+    }
+
+    private Workspace workspace(int maxLegs) {
+        Workspace ws = workspaces.get();
+        if (ws == null || ws.best.length < size || ws.cost.length < maxLegs) {
+            ws = new Workspace(Math.max(size, flights.length), Math.max(maxLegs, 4));
+            workspaces.set(ws);
+        }
+        return ws;
+    }
+
+    private int cityId(String city) {
+        Integer id = cityIds.get(city);
+        if (id != null) return id;
+        id = cityIds.size();
+        cityIds.put(city, id);
+        if (id == departureCount.length) {
+            departuresByCity = Arrays.copyOf(departuresByCity, id * 2);
+            departureTimesByCity = Arrays.copyOf(departureTimesByCity, id * 2);
+            departureCount = Arrays.copyOf(departureCount, id * 2);
+        }
+        departuresByCity[id] = new int[8];
+        departureTimesByCity[id] = new int[8];
+        return id;
+    }
+
+    private void insertDeparture(int city, int flight) {
+        int count = departureCount[city];
+        if (count == departuresByCity[city].length) {
+            departuresByCity[city] = Arrays.copyOf(departuresByCity[city], count * 2);
+            departureTimesByCity[city] = Arrays.copyOf(departureTimesByCity[city], count * 2);
+        }
+        int[] ids = departuresByCity[city];
+        int[] times = departureTimesByCity[city];
+        int at = lowerBound(times, count, departs[flight] + 1);
+        System.arraycopy(ids, at, ids, at + 1, count - at);
+        System.arraycopy(times, at, times, at + 1, count - at);
+        ids[at] = flight;
+        times[at] = departs[flight];
+        departureCount[city] = count + 1;
+    }
+
+    private void removeDeparture(int city, int flight) {
+        int count = departureCount[city];
+        int[] ids = departuresByCity[city];
+        int[] times = departureTimesByCity[city];
+        for (int at = lowerBound(times, count, departs[flight]); at < count; at++) {
+            if (ids[at] != flight) continue;
+            System.arraycopy(ids, at + 1, ids, at, count - at - 1);
+            System.arraycopy(times, at + 1, times, at, count - at - 1);
+            departureCount[city] = count - 1;
+            return;
+        }
+    }
+
+    private void grow() {
+        int capacity = flights.length * 2;
+        flights = Arrays.copyOf(flights, capacity);
+        origin = Arrays.copyOf(origin, capacity);
+        destination = Arrays.copyOf(destination, capacity);
+        departs = Arrays.copyOf(departs, capacity);
+        arrives = Arrays.copyOf(arrives, capacity);
+        price = Arrays.copyOf(price, capacity);
+        seats = Arrays.copyOf(seats, capacity);
+    }
+
+    /** First index in {@code times[0, count)} whose value is at least {@code key}. */
+    private static int lowerBound(int[] times, int count, int key) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int minutes(LocalDateTime time) {
+        return (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    /** Per-thread scratch arrays; stamps mark which entries belong to the current search. */
+    private static final class Workspace {
+        private final double[] best;
+        private final int[] bestStamp;
+        private final double[][] cost;
+        private final int[][] parent;
+        private final int[][] roundStamp;
+        private int[] frontier;
+        private int[] nextFrontier;
+        private int stamp;
+
+        private Workspace(int flights, int rounds) {
+            best = new double[flights];
+            bestStamp = new int[flights];
+            cost = new double[rounds][flights];
+            parent = new int[rounds][flights];
+            roundStamp = new int[rounds][flights];
+            frontier = new int[flights];
+            nextFrontier = new int[flights];
+        }
+    }
+}
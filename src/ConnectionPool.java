@@ -0,0 +1,316 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+    /** Records where 1 in this many borrows happened, for leak reports; 0 records none. */
+    private static final int LEAK_TRACE_EVERY = Integer.getInteger("flymanagement.db.pool.leakTraceEvery", 0);
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final long leakThresholdMillis;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+
+    public ConnectionPool(String url, String user, String password, int maxSize, int minIdle,
+                          long acquireTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationIntervalMillis = 30_000;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(() -> {
+            try {
+                housekeep();
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Connection pool housekeeping failed", e);
+            }
+        }, 15, 15, TimeUnit.SECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException("Timed out after " + acquireTimeoutMillis
+                        + " ms waiting for a database connection (" + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledEntry entry = takeIdle();
+            if (entry == null) entry = open();
+
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrower = Thread.currentThread();
+            entry.borrowSite = leakThresholdMillis > 0 && LEAK_TRACE_EVERY > 0
+                    && ThreadLocalRandom.current().nextInt(LEAK_TRACE_EVERY) == 0
+                    ? new Throwable("Connection borrowed here") : null;
+            entry.leakReported = false;
+            borrowed.add(entry);
+
+            long waited = System.nanoTime() - start;
+            Metrics.timer("db.pool.acquire").record(waited);
+            acquisitions.increment();
+            totalWaitNanos.add(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+            return entry.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens connections until {@code minIdle} are open. Each is opened under a permit, like a borrow, so
+     * warming up never takes the pool past {@code maxSize}; when no permit is free the pool is not cold.
+     */
+    public synchronized void warmUp() {
+        while (!closed && idle.size() + borrowed.size() < minIdle) {
+            if (!permits.tryAcquire()) return;
+            try {
+                PooledEntry entry = open();
+                if (closed) {
+                    entry.closeQuietly();
+                } else {
+                    idle.offerLast(entry);
+                }
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, "Could not pre-warm database connection", e);
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    public Stats getStats() {
+        long count = acquisitions.sum();
+        return new Stats(
+                borrowed.size(),
+                idle.size(),
+                maxSize,
+                permits.getQueueLength(),
+                count,
+                count == 0 ? 0 : totalWaitNanos.sum() / count / 1_000,
+                maxWaitNanos.get() / 1_000,
+                timeouts.sum(),
+                created.sum(),
+                evicted.sum(),
+                leaks.sum()
+        );
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            entry.closeQuietly();
+        }
+    }
+
+    private PooledEntry takeIdle() {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - entry.lastUsed < validationIntervalMillis || entry.isValid()) {
+                return entry;
+            }
+            evicted.increment();
+            entry.closeQuietly();
+        }
+        return null;
+    }
+
+    private PooledEntry open() throws SQLException {
+        PooledEntry entry = new PooledEntry(DriverManager.getConnection(url, user, password));
+        created.increment();
+        return entry;
+    }
+
+    private void release(PooledEntry entry) {
+        borrowed.remove(entry);
+        entry.borrower = null;
+        entry.borrowSite = null;
+        try {
+            if (closed || entry.raw.isClosed()) {
+                entry.closeQuietly();
+                return;
+            }
+            if (!entry.raw.getAutoCommit()) {
+                entry.raw.rollback();
+                entry.raw.setAutoCommit(true);
+            }
+            entry.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            evicted.increment();
+            entry.closeQuietly();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledEntry> it = idle.descendingIterator();
+        while (it.hasNext() && idle.size() > minIdle) {
+            PooledEntry entry = it.next();
+            if (now - entry.lastUsed > idleTimeoutMillis && idle.remove(entry)) {
+                evicted.increment();
+                entry.closeQuietly();
+            }
+        }
+
+        if (leakThresholdMillis > 0) {
+            for (PooledEntry entry : borrowed) {
+                if (!entry.leakReported && now - entry.borrowedAt > leakThresholdMillis) {
+                    entry.leakReported = true;
+                    leaks.increment();
+                    LOG.log(Level.WARNING, "Database connection held for " + (now - entry.borrowedAt)
+                            + " ms, possible leak", leakTrace(entry));
+                }
+            }
+        }
+
+        warmUp();
+    }
+
+    /** Where the connection was borrowed if that was sampled, otherwise what its borrower is doing now. */
+    private static Throwable leakTrace(PooledEntry entry) {
+        Throwable site = entry.borrowSite;
+        Thread borrower = entry.borrower;
+        if (site != null || borrower == null) return site;
+        Throwable now = new Throwable("Connection held by thread " + borrower.getName() + ", which is here now");
+        now.setStackTrace(borrower.getStackTrace());
+        return now;
+    }
+
+    public record Stats(int active, int idle, int maxSize, int waiting, long acquisitions,
+                        long avgWaitMicros, long maxWaitMicros, long timeouts,
+                        long created, long evicted, long leaks) {
+    }
+
+    private final class PooledEntry {
+        private final Connection raw;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile long borrowedAt;
+        private volatile Thread borrower;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledEntry(Connection raw) {
+            this.raw = raw;
+        }
+
+        private Connection lease() {
+            AtomicBoolean returned = new AtomicBoolean();
+            InvocationHandler handler = (proxy, method, args) -> invoke(proxy, returned, method, args);
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+
+        private Object invoke(Object proxy, AtomicBoolean returned, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) release(this);
+                    return null;
+                case "isClosed":
+                    return returned.get() || raw.isClosed();
+                case "toString":
+                    return "Pooled[" + raw + "]";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return args[0] == proxy;
+                default:
+                    if (returned.get()) throw new SQLException("Connection is closed");
+                    Object result;
+                    try {
+                        result = method.invoke(raw, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof Statement statement && !(result instanceof CallableStatement)) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        return StatementStats.timed(statement, sql);
+                    }
+                    return result;
+            }
+        }
+
+        private boolean isValid() {
+            try {
+                return raw.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                raw.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+}
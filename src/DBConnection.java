@@ -1,186 +1,120 @@
-import org.mindrot.jbcrypt.BCrypt;
-import javax.imageio.ImageIO;
-import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
 
 public class DBConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/bulgaria_air";
-    private static final String USER = "root";
-    private static final String PASSWORD = "5556444Ralic.";
+    private static final String URL = withStatementCache(
+            System.getProperty("flymanagement.db.url", "jdbc:mysql://localhost:3306/bulgaria_air"));
+    private static final String USER = System.getProperty("flymanagement.db.user", "root");
+    private static final String PASSWORD = System.getProperty("flymanagement.db.password", "5556444Ralic.");
+
+    private static final ConnectionPool POOL = new ConnectionPool(
+            URL, USER, PASSWORD,
+            Integer.getInteger("flymanagement.db.pool.maxSize", 10),
+            Integer.getInteger("flymanagement.db.pool.minIdle", 2),
+            Long.getLong("flymanagement.db.pool.acquireTimeoutMs", 5_000L),
+            Long.getLong("flymanagement.db.pool.idleTimeoutMs", 300_000L),
+            Long.getLong("flymanagement.db.pool.leakThresholdMs", 30_000L)
+    );
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(POOL::close, "db-pool-shutdown"));
+    }
+
+    /**
+     * Pooled connections live long, so let Connector/J keep server-side prepared statements per connection
+     * instead of re-parsing every query. Settings already present in the URL win.
+     */
+    static String withStatementCache(String url) {
+        if (!url.startsWith("jdbc:mysql:") || url.contains("cachePrepStmts")) return url;
+        return url + (url.contains("?") ? "&" : "?") + "useServerPrepStmts=true&cachePrepStmts=true"
+                + "&prepStmtCacheSize=" + Integer.getInteger("flymanagement.db.stmtCacheSize", 250)
+                + "&prepStmtCacheSqlLimit=2048";
+    }
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return POOL.getConnection();
+    }
+
+    public static void warmUpPool() {
+        POOL.warmUp();
+    }
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
     }
 
     public static User login(String email, String password) throws SQLException {
-        String query = "SELECT user_id, email, first_name, last_name, password, profile_image FROM users WHERE email = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setString(1, email);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && BCrypt.checkpw(password, rs.getString("password"))) {
-                    return new User(
-                            rs.getInt("user_id"),
-                            rs.getString("email"),
-                            rs.getString("first_name"),
-                            rs.getString("last_name"),
-                            rs.getBytes("profile_image")
-                    );
-                }
+        return Metrics.time("db.login", () -> {
+            UserRepository.Credentials credentials = UserRepository.findCredentials(email);
+            if (credentials == null) return null;
+
+            User user = credentials.user();
+            String hash = credentials.passwordHash();
+            if (!PasswordHasher.verify(password, hash)) return null;
+            if (PasswordHasher.needsRehash(hash)) {
+                PasswordHasher.rehashAsync(password)
+                        .thenAccept(newHash -> updatePasswordHash(user.getUserId(), hash, newHash));
             }
+            return user;
+        });
+    }
+
+    public static byte[] getProfileImage(int userId) throws SQLException {
+        return Metrics.time("db.getProfileImage", () -> UserRepository.findProfileImage(userId));
+    }
+
+    private static void updatePasswordHash(int userId, String oldHash, String newHash) {
+        try {
+            UserRepository.replacePasswordHash(userId, oldHash, newHash);
+        } catch (SQLException ignored) {
+            // The old hash still works; the next login will try again.
         }
-        return null;
     }
 
     public static boolean register(String email, String firstName, String lastName,
                                    String password, byte[] image) throws SQLException {
-        String hashed = BCrypt.hashpw(password, BCrypt.gensalt());
-        String query = "INSERT INTO users (email, first_name, last_name, password, profile_image) VALUES (?, ?, ?, ?, ?)";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setString(1, email);
-            pstmt.setString(2, firstName);
-            pstmt.setString(3, lastName);
-            pstmt.setString(4, hashed);
-            pstmt.setBytes(5, image);
-
-            return pstmt.executeUpdate() > 0;
-        }
+        return Metrics.time("db.register",
+                () -> UserRepository.insert(email, firstName, lastName, PasswordHasher.hash(password), image));
     }
 
     public static boolean bookTicket(int userId, int flightId, String seat) throws SQLException {
-        Connection conn = null;
-        try {
-            conn = getConnection();
-            conn.setAutoCommit(false);
-
-            try (PreparedStatement pstmt = conn.prepareStatement(
-                    "SELECT available_seats FROM flights WHERE flight_id = ?")) {
-                pstmt.setInt(1, flightId);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next() && rs.getInt("available_seats") < 1) {
-                    throw new SQLException("No available seats");
-                }
-            }
-
-            try (PreparedStatement pstmt = conn.prepareStatement(
-                    "INSERT INTO tickets (user_id, flight_id, seat_number) VALUES (?, ?, ?)")) {
-                pstmt.setInt(1, userId);
-                pstmt.setInt(2, flightId);
-                pstmt.setString(3, seat);
-                pstmt.executeUpdate();
-            }
-
-            try (PreparedStatement pstmt = conn.prepareStatement(
-                    "UPDATE flights SET available_seats = available_seats - 1 WHERE flight_id = ?")) {
-                pstmt.setInt(1, flightId);
-                pstmt.executeUpdate();
-            }
+        return Metrics.time("db.bookTicket", () -> {
+            SeatReservationEngine.reserve(userId, flightId, seat);
+            return true;
+        });
+    }
 
-            conn.commit();
+    /** Turns a seat hold into a ticket; the seat already left the inventory when it was held. */
+    public static boolean bookTicket(SeatHoldService.Hold hold, String seat) throws SQLException {
+        return Metrics.time("db.bookTicket", () -> {
+            SeatHoldService.book(hold, seat, null);
             return true;
-        } catch (SQLException e) {
-            if (conn != null) conn.rollback();
-            throw e;
-        } finally {
-            if (conn != null) conn.setAutoCommit(true);
-        }
+        });
     }
 
-    public static ResultSet getFlightDetails(int flightId) throws SQLException {
-        String query = "SELECT * FROM flights WHERE flight_id = ?";
-        Connection conn = getConnection();
-        PreparedStatement pstmt = conn.prepareStatement(query);
-        pstmt.setInt(1, flightId);
-        return pstmt.executeQuery();
+    public static Flight getFlightDetails(int flightId) throws SQLException {
+        return Metrics.time("db.getFlightDetails", () -> FlightRepository.findById(flightId));
     }
 
     public static byte[] resizeImage(BufferedImage originalImage) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            BufferedImage resizedImage = new BufferedImage(150, 150, BufferedImage.TYPE_INT_RGB);
-            Graphics2D g = resizedImage.createGraphics();
-            g.drawImage(originalImage, 0, 0, 150, 150, null);
-            g.dispose();
-
-            ImageIO.write(resizedImage, "jpg", baos);
-            return baos.toByteArray();
-        }
+        ImageIngestor ingestor = ImageIngestor.defaults();
+        return Metrics.time("image.resize", () -> ingestor.encode(ingestor.toAvatar(originalImage)));
     }
 
     public static boolean cancelTicket(int ticketId) throws SQLException {
-        String query = "DELETE FROM tickets WHERE ticket_id = ?";
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setInt(1, ticketId);
-            return pstmt.executeUpdate() > 0;
-        }
+        return Metrics.time("db.cancelTicket", () -> CancellationService.cancel(ticketId));
     }
 
     public static boolean updateBooking(int ticketId, int newFlightId, String newSeat) throws SQLException {
-        Connection conn = null;
-        try {
-            conn = getConnection();
-            conn.setAutoCommit(false);
-
-            int oldFlightId;
-            try (PreparedStatement pstmt = conn.prepareStatement(
-                    "SELECT flight_id FROM tickets WHERE ticket_id = ?")) {
-                pstmt.setInt(1, ticketId);
-                ResultSet rs = pstmt.executeQuery();
-                if (!rs.next()) throw new SQLException("Ticket not found");
-                oldFlightId = rs.getInt("flight_id");
-            }
-
-            try (PreparedStatement pstmt = conn.prepareStatement(
-                    "UPDATE tickets SET flight_id = ?, seat_number = ? WHERE ticket_id = ?")) {
-                pstmt.setInt(1, newFlightId);
-                pstmt.setString(2, newSeat);
-                pstmt.setInt(3, ticketId);
-                pstmt.executeUpdate();
-            }
-
-            try (PreparedStatement pstmt = conn.prepareStatement(
-                    "UPDATE flights SET available_seats = available_seats + 1 WHERE flight_id = ?")) {
-                pstmt.setInt(1, oldFlightId);
-                pstmt.executeUpdate();
-            }
-
-            try (PreparedStatement pstmt = conn.prepareStatement(
-                    "UPDATE flights SET available_seats = available_seats - 1 WHERE flight_id = ?")) {
-                pstmt.setInt(1, newFlightId);
-                pstmt.executeUpdate();
-            }
-
-            conn.commit();
-            return true;
-        } catch (SQLException e) {
-            if (conn != null) conn.rollback();
-            throw e;
-        } finally {
-            if (conn != null) conn.setAutoCommit(true);
-        }
+        return Metrics.time("db.updateBooking", () -> RebookingEngine.rebook(ticketId, newFlightId, newSeat));
     }
 
-    public static ArrayList<Integer> getAvailableFlights() throws SQLException {
-        ArrayList<Integer> flights = new ArrayList<>();
-        String query = "SELECT flight_id FROM flights WHERE available_seats > 0";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query);
-             ResultSet rs = pstmt.executeQuery()) {
-
-            while (rs.next()) {
-                flights.add(rs.getInt("flight_id"));
-            }
-        }
-        return flights;
+    public static List<Integer> getAvailableFlights() throws SQLException {
+        return Metrics.time("db.getAvailableFlights", FlightRepository::findBookableIds);
     }
 
     public static boolean insertFullFlight(
@@ -192,24 +126,10 @@ public class DBConnection {
             int seats,
             boolean isExclusive
     ) throws SQLException {
-        String query = "INSERT INTO flights (" +
-                "departure_city, destination_city, " +
-                "departure_time, arrival_time, " +
-                "price, available_seats, is_exclusive" +
-                ") VALUES (?, ?, ?, ?, ?, ?, ?)";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setString(1, departure);
-            pstmt.setString(2, destination);
-            pstmt.setTimestamp(3, departureTime);
-            pstmt.setTimestamp(4, arrivalTime);
-            pstmt.setDouble(5, price);
-            pstmt.setInt(6, seats);
-            pstmt.setBoolean(7, isExclusive);
-
-            return pstmt.executeUpdate() > 0;
-        }
+        DomainEvent added = Metrics.time("db.insertFullFlight", () -> FlightRepository.insert(departure,
+                destination, departureTime, arrivalTime, price, seats, isExclusive));
+        if (added == null) return false;
+        DomainEvents.publish(added);
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+/** A committed change to bookings or the schedule; fields that do not apply are 0 or {@code null}. */
+public record DomainEvent(
+        Type type,
+        int ticketId,
+        int userId,
+        int flightId,
+        String seat,
+        int fromFlightId,
+        String fromSeat,
+        SeatCount seats,
+        SeatCount fromSeats
+) {
+    /** {@code available_seats} and the {@code seat_version} it was read at, under the flight's row lock. */
+    public record SeatCount(int available, long version) {
+    }
+
+    public enum Type {
+        BOOKED,
+        CANCELLED,
+        MOVED,
+        /** A seat was put on hold for {@code userId} and taken out of the available count. */
+        HELD,
+        /** A hold ended, by expiry, by the user backing out or by being booked. */
+        RELEASED,
+        /** New flights exist; {@code flightId} is 0 when a whole batch was imported. */
+        FLIGHTS_ADDED,
+        /** {@code flightId}'s seat count had drifted from its tickets and holds and was corrected. */
+        RECONCILED
+    }
+
+    public static DomainEvent booked(int ticketId, int userId, int flightId, String seat, SeatCount seats) {
+        return new DomainEvent(Type.BOOKED, ticketId, userId, flightId, seat, 0, null, seats, null);
+    }
+
+    public static DomainEvent cancelled(int ticketId, int userId, int flightId, String seat, SeatCount seats) {
+        return new DomainEvent(Type.CANCELLED, ticketId, userId, flightId, seat, 0, null, seats, null);
+    }
+
+    public static DomainEvent moved(int ticketId, int userId, int fromFlightId, String fromSeat, SeatCount fromSeats,
+                                    int flightId, String seat, SeatCount seats) {
+        return new DomainEvent(Type.MOVED, ticketId, userId, flightId, seat, fromFlightId, fromSeat, seats, fromSeats);
+    }
+
+    public static DomainEvent held(int userId, int flightId, String seat, SeatCount seats) {
+        return new DomainEvent(Type.HELD, 0, userId, flightId, seat, 0, null, seats, null);
+    }
+
+    public static DomainEvent released(int userId, int flightId, String seat, SeatCount seats) {
+        return new DomainEvent(Type.RELEASED, 0, userId, flightId, seat, 0, null, seats, null);
+    }
+
+    /** {@code flightId} is 0 when a whole batch was added, as by a schedule import. */
+    public static DomainEvent flightsAdded(int flightId) {
+        return new DomainEvent(Type.FLIGHTS_ADDED, 0, 0, flightId, null, 0, null, null, null);
+    }
+
+    public static DomainEvent reconciled(int flightId, SeatCount seats) {
+        return new DomainEvent(Type.RECONCILED, 0, 0, flightId, null, 0, null, seats, null);
+    }
+
+    /** Whether the available seat count of {@code id} may have changed. */
+    public boolean affectsFlight(int id) {
+        return id != 0 && (flightId == id || fromFlightId == id);
+    }
+}
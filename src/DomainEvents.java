@@ -0,0 +1,81 @@
+import javax.swing.*;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** In-process bus for committed {@link DomainEvent}s. */
+public class DomainEvents {
+    private static final Logger LOG = Logger.getLogger(DomainEvents.class.getName());
+    private static final List<Consumer<DomainEvent>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private DomainEvents() {
+    }
+
+    /** Returns an action that unsubscribes the listener. */
+    public static Runnable subscribe(Consumer<DomainEvent> listener) {
+        LISTENERS.add(listener);
+        return () -> LISTENERS.remove(listener);
+    }
+
+    /** Delivers events to {@code listener} on the EDT until {@code window} is disposed. */
+    public static void subscribe(Window window, Consumer<DomainEvent> listener) {
+        Runnable unsubscribe = subscribe(event -> SwingUtilities.invokeLater(() -> {
+            if (window.isDisplayable()) listener.accept(event);
+        }));
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                unsubscribe.run();
+            }
+        });
+    }
+
+    public static void publish(DomainEvent event) {
+        publish(List.of(event));
+    }
+
+    public static void publish(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            apply(event);
+            for (Consumer<DomainEvent> listener : LISTENERS) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    LOG.log(Level.WARNING, "Event listener failed on " + event, e);
+                }
+            }
+        }
+    }
+
+    private static void apply(DomainEvent event) {
+        FlightCatalog catalog = FlightCatalog.shared();
+        switch (event.type()) {
+            case BOOKED, HELD -> {
+                SeatMapRegistry.seatTaken(event.flightId(), event.seat());
+                catalog.seatsChanged(event.flightId(), event.seats());
+            }
+            case CANCELLED, RELEASED -> {
+                SeatMapRegistry.seatReleased(event.flightId(), event.seat());
+                catalog.seatsChanged(event.flightId(), event.seats());
+            }
+            case MOVED -> {
+                SeatMapRegistry.seatReleased(event.fromFlightId(), event.fromSeat());
+                SeatMapRegistry.seatTaken(event.flightId(), event.seat());
+                if (event.fromFlightId() != event.flightId()) {
+                    catalog.seatsChanged(event.fromFlightId(), event.fromSeats());
+                    catalog.seatsChanged(event.flightId(), event.seats());
+                }
+            }
+            case FLIGHTS_ADDED -> catalog.markStale();
+            case RECONCILED -> {
+                SeatMapRegistry.invalidate(event.flightId());
+                catalog.seatsChanged(event.flightId(), event.seats());
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/** Logs EDT events and stalls that exceed the frame budget. */
+public class EdtWatchdog extends EventQueue {
+    public static final long BUDGET_MILLIS = Long.getLong("flymanagement.edt.budgetMs", 100L);
+
+    private static final Logger LOG = Logger.getLogger(EdtWatchdog.class.getName());
+    private static final Metrics.Timer DISPATCH = Metrics.timer("edt.dispatch");
+    private static final Metrics.Timer STALLS = Metrics.timer("edt.stall");
+    private static volatile EdtWatchdog installed;
+
+    private final LongAdder events = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private volatile long pingPostedNanos;
+    private volatile Thread edt;
+    private long dispatched;
+
+    private EdtWatchdog() {
+    }
+
+    public static synchronized void install() {
+        if (installed != null) return;
+        installed = new EdtWatchdog();
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(installed);
+
+        Thread monitor = new Thread(installed::monitor, "edt-watchdog");
+        monitor.setDaemon(true);
+        monitor.start();
+    }
+
+    public static Stats getStats() {
+        EdtWatchdog w = installed;
+        if (w == null) return new Stats(0, 0, 0, BUDGET_MILLIS);
+        return new Stats(w.events.sum(), w.overBudget.sum(), w.maxNanos.get() / 1_000_000, BUDGET_MILLIS);
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        edt = Thread.currentThread();
+        long sequence = ++dispatched;
+        long start = System.nanoTime();
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long now = System.nanoTime();
+            events.increment();
+            // Modal dialogs pump nested events from inside this one; that time is not a stall.
+            if (dispatched == sequence) {
+                long elapsed = now - start;
+                maxNanos.accumulateAndGet(elapsed, Math::max);
+                DISPATCH.record(elapsed);
+                if (elapsed > BUDGET_MILLIS * 1_000_000) {
+                    overBudget.increment();
+                    STALLS.record(elapsed);
+                    onStall(event, elapsed);
+                }
+            }
+        }
+    }
+
+    protected void onStall(AWTEvent event, long elapsedNanos) {
+        LOG.warning("EDT blocked for " + elapsedNanos / 1_000_000 + " ms (budget " + BUDGET_MILLIS
+                + " ms) handling " + event.getClass().getSimpleName());
+    }
+
+    private void monitor() {
+        boolean reported = false;
+        while (true) {
+            try {
+                Thread.sleep(Math.max(10, BUDGET_MILLIS / 2));
+            } catch (InterruptedException e) {
+                return;
+            }
+            long posted = pingPostedNanos;
+            if (posted == 0) {
+                pingPostedNanos = System.nanoTime();
+                reported = false;
+                EventQueue.invokeLater(() -> pingPostedNanos = 0);
+            } else if (!reported && System.nanoTime() - posted > BUDGET_MILLIS * 1_000_000) {
+                reported = true;
+                Thread t = edt;
+                StringBuilder stack = new StringBuilder("EDT unresponsive past " + BUDGET_MILLIS + " ms budget:");
+                if (t != null) {
+                    for (StackTraceElement frame : t.getStackTrace()) stack.append("\n\tat ").append(frame);
+                }
+                LOG.warning(stack.toString());
+            }
+        }
+    }
+
+    public record Stats(long events, long overBudget, long maxMillis, long budgetMillis) {
+    }
+}
@@ -0,0 +1,61 @@
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/** Turns a flight's base fare into the fare charged today. */
+public class FareEngine {
+    /** Lower bounds of the days-to-departure bands. */
+    private static final int[] DAY_BANDS = {0, 1, 3, 7, 14, 21, 30, 60};
+    private static final double[] ECONOMY_BY_DAYS = {1.60, 1.45, 1.30, 1.15, 1.05, 1.00, 0.95, 0.90};
+    private static final double[] BUSINESS_BY_DAYS = {1.35, 1.30, 1.20, 1.10, 1.05, 1.00, 1.00, 0.95};
+    private static final double ECONOMY_FULL_SURCHARGE = 0.80;
+    private static final double BUSINESS_FULL_SURCHARGE = 0.50;
+    private static final int LOAD_STEPS = 20;
+
+    /** [cabin][day band][load step]: economy is cabin 0, business 1. */
+    private static final double[][][] MULTIPLIERS = new double[2][DAY_BANDS.length][LOAD_STEPS + 1];
+
+    static {
+        for (int band = 0; band < DAY_BANDS.length; band++) {
+            for (int step = 0; step <= LOAD_STEPS; step++) {
+                // Surcharge grows with the square of the load, so prices only climb steeply near sell-out.
+                double load = (double) step / LOAD_STEPS;
+                MULTIPLIERS[0][band][step] = ECONOMY_BY_DAYS[band] * (1 + ECONOMY_FULL_SURCHARGE * load * load);
+                MULTIPLIERS[1][band][step] = BUSINESS_BY_DAYS[band] * (1 + BUSINESS_FULL_SURCHARGE * load * load);
+            }
+        }
+    }
+
+    private FareEngine() {
+    }
+
+    /**
+     * The fare for the next seat sold on a flight with {@code availableSeats} of {@code totalSeats} left;
+     * an unknown capacity (0) counts as empty. Rounded to the cent.
+     */
+    public static double quote(double baseFare, int availableSeats, int totalSeats, LocalDateTime departure,
+                               boolean exclusive, LocalDate today) {
+        return Math.round(baseFare * multiplier(availableSeats, totalSeats, departure, exclusive, today) * 100) / 100.0;
+    }
+
+    public static double quote(Flight flight, double baseFare, LocalDate today) {
+        return quote(baseFare, flight.availableSeats(), flight.totalSeats(), flight.departureTime(), flight.exclusive(),
+                today);
+    }
+
+    static double multiplier(int availableSeats, int totalSeats, LocalDateTime departure, boolean exclusive,
+                             LocalDate today) {
+        int step = 0;
+        if (totalSeats > 0) {
+            int sold = Math.max(0, Math.min(totalSeats, totalSeats - availableSeats));
+            step = (int) ((long) sold * LOAD_STEPS / totalSeats);
+        }
+        return MULTIPLIERS[exclusive ? 1 : 0][dayBand(ChronoUnit.DAYS.between(today, departure.toLocalDate()))][step];
+    }
+
+    private static int dayBand(long days) {
+        int band = 0;
+        while (band + 1 < DAY_BANDS.length && days >= DAY_BANDS[band + 1]) band++;
+        return band;
+    }
+}
@@ -0,0 +1,49 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Departure, destination and date facets for the WelcomeFrame filters. */
+public class FilterFacets {
+    private static volatile Facets cached;
+
+    private FilterFacets() {
+    }
+
+    public static Facets get() throws SQLException {
+        FlightCatalog catalog = FlightCatalog.shared();
+        catalog.refreshIfStale();
+
+        Facets facets = cached;
+        long version = catalog.version();
+        if (facets == null || facets.version() != version) {
+            facets = compute(catalog.all(), version);
+            cached = facets;
+        }
+        return facets;
+    }
+
+    public static Facets getIfLoaded() {
+        return cached;
+    }
+
+    static Facets compute(List<Flight> flights, long version) {
+        Map<String, Integer> departures = new TreeMap<>();
+        Map<String, Integer> destinations = new TreeMap<>();
+        Map<LocalDate, Integer> dates = new TreeMap<>();
+        for (Flight flight : flights) {
+            int bookable = flight.availableSeats() > 0 ? 1 : 0;
+            departures.merge(flight.departureCity(), bookable, Integer::sum);
+            destinations.merge(flight.destinationCity(), bookable, Integer::sum);
+            dates.merge(flight.departureTime().toLocalDate(), bookable, Integer::sum);
+        }
+        return new Facets(Collections.unmodifiableMap(departures), Collections.unmodifiableMap(destinations),
+                Collections.unmodifiableMap(dates), version);
+    }
+
+    public record Facets(Map<String, Integer> departures, Map<String, Integer> destinations,
+                         Map<LocalDate, Integer> dates, long version) {
+    }
+}
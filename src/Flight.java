@@ -0,0 +1,42 @@
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+public record Flight(
+        int flightId,
+        String departureCity,
+        String destinationCity,
+        LocalDateTime departureTime,
+        LocalDateTime arrivalTime,
+        double price,
+        int availableSeats,
+        boolean exclusive,
+        int totalSeats
+) {
+    public static final String COLUMNS = "flight_id, departure_city, destination_city, " +
+            "departure_time, arrival_time, price, available_seats, is_exclusive, total_seats";
+
+    public static Flight from(ResultSet rs) throws SQLException {
+        return new Flight(
+                rs.getInt("flight_id"),
+                rs.getString("departure_city"),
+                rs.getString("destination_city"),
+                rs.getTimestamp("departure_time").toLocalDateTime(),
+                rs.getTimestamp("arrival_time").toLocalDateTime(),
+                rs.getDouble("price"),
+                rs.getInt("available_seats"),
+                rs.getBoolean("is_exclusive"),
+                rs.getInt("total_seats")
+        );
+    }
+
+    public Flight withAvailableSeats(int seats) {
+        return new Flight(flightId, departureCity, destinationCity, departureTime, arrivalTime, price, seats, exclusive,
+                totalSeats);
+    }
+
+    public Flight withPrice(double fare) {
+        return new Flight(flightId, departureCity, destinationCity, departureTime, arrivalTime, fare, availableSeats,
+                exclusive, totalSeats);
+    }
+}
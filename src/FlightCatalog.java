@@ -0,0 +1,312 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/** Shared in-memory copy of the flights table. */
+public class FlightCatalog {
+    private static final FlightCatalog SHARED = new FlightCatalog(
+            Long.getLong("flymanagement.catalog.staleMs", 30_000L),
+            Long.getLong("flymanagement.catalog.evictDepartedAfterMs", -1L),
+            Long.getLong("flymanagement.catalog.fullRefreshMs", 10 * 60_000L));
+
+    private final long staleMillis;
+    private final long evictDepartedAfterMillis;
+    private final long fullRefreshMillis;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Flight[] slots = new Flight[256];
+    private double[] baseFares = new double[256];
+    private long[] seatVersions = new long[256];
+    private int size;
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final Map<String, BitSet> byDeparture = new HashMap<>();
+    private final Map<String, BitSet> byDestination = new HashMap<>();
+    private final Map<LocalDate, BitSet> byDate = new HashMap<>();
+    private final BitSet exclusive = new BitSet();
+    private final BitSet withSeats = new BitSet();
+    private final BitSet live = new BitSet();
+    private final RouteIndex routes = new RouteIndex();
+    private final ConnectionFinder connections = new ConnectionFinder();
+
+    private volatile long version;
+    private volatile long refreshedAt;
+    private volatile boolean loaded;
+    private volatile boolean stale;
+    private volatile LocalDate pricedOn = LocalDate.now();
+    private int maxFlightId;
+    private long changeWatermark = -1;
+    private long fullRefreshAt;
+
+    /** Reads every seat count on each refresh. */
+    public FlightCatalog(long staleMillis, long evictDepartedAfterMillis) {
+        this(staleMillis, evictDepartedAfterMillis, 0);
+    }
+
+    /**
+     * Between full reads every {@code fullRefreshMillis}, a refresh reads only the seat counts of flights named
+     * in the change log since the last one; the full read catches clients that change seats without logging.
+     */
+    public FlightCatalog(long staleMillis, long evictDepartedAfterMillis, long fullRefreshMillis) {
+        this.staleMillis = staleMillis;
+        this.evictDepartedAfterMillis = evictDepartedAfterMillis;
+        this.fullRefreshMillis = fullRefreshMillis;
+    }
+
+    public static FlightCatalog shared() {
+        return SHARED;
+    }
+
+    public void refreshIfStale() throws SQLException {
+        if (!loaded || stale || System.currentTimeMillis() - refreshedAt > staleMillis
+                || !pricedOn.equals(LocalDate.now())) {
+            refresh();
+        }
+    }
+
+    public synchronized void refresh() throws SQLException {
+        int watermark;
+        lock.readLock().lock();
+        try {
+            watermark = maxFlightId;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Flight> added = FlightRepository.findAfter(watermark);
+        // Counts for the new flights too, for the seat versions they were read at.
+        int upTo = added.isEmpty() ? watermark : added.get(added.size() - 1).flightId();
+        Map<Integer, DomainEvent.SeatCount> seats;
+        try (Connection conn = DBConnection.getConnection()) {
+            // Taken before the counts, so a change committed meanwhile is read again next time rather than never.
+            long lastChange = ChangeLog.lastChangeId(conn);
+            long now = System.currentTimeMillis();
+            if (lastChange < 0 || changeWatermark < 0 || now - fullRefreshAt >= fullRefreshMillis) {
+                seats = FlightRepository.findSeatCounts(conn, 0, upTo);
+                fullRefreshAt = now;
+            } else {
+                long since = Math.max(0, changeWatermark - ChangeLog.LOOKBACK);
+                seats = FlightRepository.findChangedSeatCounts(conn, since);
+                seats.putAll(FlightRepository.findSeatCounts(conn, watermark, upTo));
+            }
+            changeWatermark = lastChange;
+        }
+
+        lock.writeLock().lock();
+        try {
+            repriceIfNewDay();
+            for (Flight flight : added) put(flight);
+            // An event applied while the counts were being read may already be newer than them.
+            seats.forEach((flightId, count) -> setSeats(flightId, count, true));
+            evictDeparted();
+            loaded = true;
+            stale = false;
+            refreshedAt = System.currentTimeMillis();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public void markStale() {
+        stale = true;
+    }
+
+    /**
+     * Takes a seat count committed by a booking change, unless a newer one has already been seen; events can
+     * arrive late and out of order. An unknown count ({@code null}) marks the catalog stale instead.
+     */
+    public void seatsChanged(int flightId, DomainEvent.SeatCount seats) {
+        if (seats == null) {
+            markStale();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            setSeats(flightId, seats, false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** City and route index over the catalog's live flights, kept current as flights come and go. */
+    public RouteIndex routes() {
+        return routes;
+    }
+
+    /** Itinerary planner over the same flights, including connections. */
+    public ConnectionFinder connections() {
+        return connections;
+    }
+
+    public Flight get(int flightId) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slotById.get(flightId);
+            return slot == null ? null : slots[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Flight> query(Filter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) withSeats.clone();
+            matches.and(live);
+            if (filter.departure() != null) matches.and(byDeparture.getOrDefault(filter.departure(), new BitSet()));
+            if (filter.destination() != null) matches.and(byDestination.getOrDefault(filter.destination(), new BitSet()));
+            if (filter.date() != null) matches.and(byDate.getOrDefault(filter.date(), new BitSet()));
+            if (filter.exclusive() != null) {
+                if (filter.exclusive()) matches.and(exclusive);
+                else matches.andNot(exclusive);
+            }
+
+            List<Flight> result = new ArrayList<>(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                result.add(slots[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Adds or replaces flights without going to the database; for benchmarks. */
+    void putAll(List<Flight> flights) {
+        lock.writeLock().lock();
+        try {
+            repriceIfNewDay();
+            for (Flight flight : flights) put(flight);
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Flight> all() {
+        lock.readLock().lock();
+        try {
+            List<Flight> result = new ArrayList<>(live.cardinality());
+            for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+                result.add(slots[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Takes {@code flight.price()} as the base fare. */
+    private void put(Flight flight) {
+        double baseFare = flight.price();
+        flight = flight.withPrice(FareEngine.quote(flight, baseFare, pricedOn));
+        Integer existing = slotById.get(flight.flightId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            // The route, date or cabin may have changed, so the old entries go before the new ones are made.
+            if (live.get(slot)) unindex(slot);
+        } else if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pop();
+        } else {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                baseFares = Arrays.copyOf(baseFares, size * 2);
+                seatVersions = Arrays.copyOf(seatVersions, size * 2);
+            }
+            slot = size++;
+        }
+        slots[slot] = flight;
+        baseFares[slot] = baseFare;
+        if (existing == null) seatVersions[slot] = 0;
+        slotById.put(flight.flightId(), slot);
+        byDeparture.computeIfAbsent(flight.departureCity(), k -> new BitSet()).set(slot);
+        byDestination.computeIfAbsent(flight.destinationCity(), k -> new BitSet()).set(slot);
+        byDate.computeIfAbsent(flight.departureTime().toLocalDate(), k -> new BitSet()).set(slot);
+        exclusive.set(slot, flight.exclusive());
+        withSeats.set(slot, flight.availableSeats() > 0);
+        live.set(slot);
+        routes.add(flight);
+        connections.add(flight);
+        maxFlightId = Math.max(maxFlightId, flight.flightId());
+        version++;
+    }
+
+    /** Clears the slot from every index; the caller refills or frees it. */
+    private void unindex(int slot) {
+        Flight flight = slots[slot];
+        clear(byDeparture, flight.departureCity(), slot);
+        clear(byDestination, flight.destinationCity(), slot);
+        clear(byDate, flight.departureTime().toLocalDate(), slot);
+        exclusive.clear(slot);
+        withSeats.clear(slot);
+        live.clear(slot);
+        routes.remove(flight);
+    }
+
+    private static <K> void clear(Map<K, BitSet> index, K key, int slot) {
+        BitSet slots = index.get(key);
+        if (slots == null) return;
+        slots.clear(slot);
+        if (slots.isEmpty()) index.remove(key);
+    }
+
+    /** At equal versions a refresh still applies: clients from before V9 change seats without bumping it. */
+    private void setSeats(int flightId, DomainEvent.SeatCount count, boolean refresh) {
+        Integer slot = slotById.get(flightId);
+        if (slot == null) return;
+        if (refresh ? count.version() < seatVersions[slot] : count.version() <= seatVersions[slot]) return;
+        seatVersions[slot] = count.version();
+        int seats = count.available();
+        if (slots[slot].availableSeats() == seats) return;
+        Flight flight = slots[slot].withAvailableSeats(seats);
+        slots[slot] = flight.withPrice(FareEngine.quote(flight, baseFares[slot], pricedOn));
+        withSeats.set(slot, seats > 0);
+        connections.add(slots[slot]);
+        version++;
+    }
+
+    /** Fares depend on days to departure, so a new day requotes every live flight. */
+    private void repriceIfNewDay() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(pricedOn)) return;
+        pricedOn = today;
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            slots[i] = slots[i].withPrice(FareEngine.quote(slots[i], baseFares[i], today));
+            connections.add(slots[i]);
+        }
+        version++;
+    }
+
+    private void evictDeparted() {
+        if (evictDepartedAfterMillis < 0) return;
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(evictDepartedAfterMillis * 1_000_000);
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            if (slots[i].departureTime().isBefore(cutoff)) {
+                // Its id stays below maxFlightId, so a refresh does not load it again and the slot can be reused.
+                unindex(i);
+                slotById.remove(slots[i].flightId());
+                slots[i] = null;
+                freeSlots.push(i);
+                version++;
+            }
+        }
+    }
+
+    public record Filter(String departure, String destination, LocalDate date, Boolean exclusive) {
+        public static final Filter ANY = new Filter(null, null, null, null);
+    }
+}
@@ -0,0 +1,202 @@
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FlightRepository {
+    static final String INSERT_COLUMNS = "departure_city, destination_city, " +
+            "departure_time, arrival_time, " +
+            "price, available_seats, is_exclusive, total_seats";
+
+    private FlightRepository() {
+    }
+
+    public static Flight findById(int flightId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT " + Flight.COLUMNS + " FROM flights WHERE flight_id = ?")) {
+            pstmt.setInt(1, flightId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? Flight.from(rs) : null;
+            }
+        }
+    }
+
+    public static List<Integer> findBookableIds() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT flight_id FROM flights WHERE available_seats > 0");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) ids.add(rs.getInt("flight_id"));
+        }
+        return ids;
+    }
+
+    /** Flights with an id above {@code watermark}, in id order. */
+    public static List<Flight> findAfter(int watermark) throws SQLException {
+        List<Flight> flights = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT " + Flight.COLUMNS + " FROM flights WHERE flight_id > ? ORDER BY flight_id")) {
+            pstmt.setInt(1, watermark);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) flights.add(Flight.from(rs));
+            }
+        }
+        return flights;
+    }
+
+    /** Seat counts of the flights with an id above {@code after} and up to {@code upTo}, keyed by flight id. */
+    static Map<Integer, DomainEvent.SeatCount> findSeatCounts(Connection conn, int after, int upTo)
+            throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT flight_id, available_seats, seat_version FROM flights " +
+                        "WHERE flight_id > ? AND flight_id <= ?")) {
+            pstmt.setInt(1, after);
+            pstmt.setInt(2, upTo);
+            return seatCounts(pstmt);
+        }
+    }
+
+    /** Seat counts of the flights named in change log rows after {@code changeId}. */
+    static Map<Integer, DomainEvent.SeatCount> findChangedSeatCounts(Connection conn, long changeId)
+            throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT flight_id, available_seats, seat_version FROM flights WHERE flight_id IN (" +
+                        "SELECT flight_id FROM change_log WHERE change_id > ? " +
+                        "UNION SELECT from_flight_id FROM change_log WHERE change_id > ?)")) {
+            pstmt.setLong(1, changeId);
+            pstmt.setLong(2, changeId);
+            return seatCounts(pstmt);
+        }
+    }
+
+    /** Seat counts of the given flights inside the caller's transaction, once it holds their row locks. */
+    static Map<Integer, DomainEvent.SeatCount> findSeatCounts(Connection conn, Collection<Integer> flightIds)
+            throws SQLException {
+        if (flightIds.isEmpty()) return new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT flight_id, available_seats, seat_version FROM flights WHERE flight_id IN (" +
+                        Transactions.placeholders(flightIds.size()) + ")")) {
+            Transactions.bind(pstmt, List.copyOf(flightIds), 1);
+            return seatCounts(pstmt);
+        }
+    }
+
+    private static Map<Integer, DomainEvent.SeatCount> seatCounts(PreparedStatement pstmt) throws SQLException {
+        Map<Integer, DomainEvent.SeatCount> seats = new HashMap<>();
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) seats.put(rs.getInt(1), new DomainEvent.SeatCount(rs.getInt(2), rs.getLong(3)));
+        }
+        return seats;
+    }
+
+    static DomainEvent.SeatCount findSeatCount(Connection conn, int flightId) throws SQLException {
+        DomainEvent.SeatCount seats = findSeatCounts(conn, List.of(flightId)).get(flightId);
+        if (seats == null) throw new SQLException("Flight BA" + flightId + " not found");
+        return seats;
+    }
+
+    /** Seat counts and the seats that are ticketed or on hold; held seats are not in {@code available_seats}. */
+    public static Seating findSeating(int flightId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            return findSeating(conn, flightId);
+        }
+    }
+
+    /** As {@link #findSeating(int)}, inside the caller's transaction. */
+    static Seating findSeating(Connection conn, int flightId) throws SQLException {
+        String query = "SELECT f.available_seats, f.total_seats, f.is_exclusive, t.seat_number " +
+                "FROM flights f LEFT JOIN tickets t ON t.flight_id = f.flight_id " +
+                "WHERE f.flight_id = ?";
+
+        int available;
+        int total;
+        boolean exclusive;
+        List<String> taken = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, flightId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) return null;
+
+                available = rs.getInt("available_seats");
+                total = rs.getInt("total_seats");
+                exclusive = rs.getBoolean("is_exclusive");
+                do {
+                    String seat = rs.getString("seat_number");
+                    if (seat != null) taken.add(seat);
+                } while (rs.next());
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT seat_number FROM seat_holds WHERE flight_id = ?")) {
+            pstmt.setInt(1, flightId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) taken.add(rs.getString(1));
+            }
+        }
+        return new Seating(available, total, exclusive, List.copyOf(taken));
+    }
+
+    /**
+     * Inserts the flight and logs its {@link DomainEvent#flightsAdded} for other terminals in the same
+     * transaction. Returns the event, or {@code null} when no row was inserted.
+     */
+    public static DomainEvent insert(String departure, String destination, Timestamp departureTime,
+                                     Timestamp arrivalTime, double price, int seats, boolean exclusive)
+            throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO flights (" + INSERT_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, departure);
+                pstmt.setString(2, destination);
+                pstmt.setTimestamp(3, departureTime);
+                pstmt.setTimestamp(4, arrivalTime);
+                pstmt.setDouble(5, price);
+                pstmt.setInt(6, seats);
+                pstmt.setBoolean(7, exclusive);
+                pstmt.setInt(8, seats);
+                DomainEvent added = null;
+                if (pstmt.executeUpdate() > 0) {
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        if (!keys.next()) throw new SQLException("No flight id generated");
+                        added = DomainEvent.flightsAdded(keys.getInt(1));
+                    }
+                    ChangeLog.append(conn, List.of(added));
+                }
+                conn.commit();
+                return added;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    public static boolean insertRequest(String departure, String destination, LocalDate date) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO flight_requests (departure_city, destination_city, travel_date) VALUES (?, ?, ?)")) {
+            pstmt.setString(1, departure);
+            pstmt.setString(2, destination);
+            pstmt.setDate(3, Date.valueOf(date));
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /** {@code totalSeats} is 0 for flights whose capacity was never recorded. */
+    public record Seating(int availableSeats, int totalSeats, boolean exclusive, List<String> takenSeats) {
+    }
+}
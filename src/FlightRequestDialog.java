@@ -0,0 +1,70 @@
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+public class FlightRequestDialog extends JDialog {
+    private final JTextField departureField = new JTextField(20);
+    private final JTextField destinationField = new JTextField(20);
+    private final JSpinner dateSpinner = new JSpinner(new SpinnerDateModel());
+    private final JButton sendBtn = new JButton("Send request");
+
+    public FlightRequestDialog(JFrame owner) {
+        super(owner, "Request a Flight", true);
+        dateSpinner.setEditor(new JSpinner.DateEditor(dateSpinner, "yyyy-MM-dd"));
+        dateSpinner.setValue(Date.from(LocalDate.now().plusDays(7).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+
+        JPanel form = new JPanel(new GridLayout(0, 2, 8, 8));
+        form.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        form.add(new JLabel("From:"));
+        form.add(departureField);
+        form.add(new JLabel("To:"));
+        form.add(destinationField);
+        form.add(new JLabel("Date:"));
+        form.add(dateSpinner);
+
+        JButton cancelBtn = new JButton("Cancel");
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(cancelBtn);
+        buttons.add(sendBtn);
+
+        setLayout(new BorderLayout());
+        add(form, BorderLayout.CENTER);
+        add(buttons, BorderLayout.SOUTH);
+        pack();
+        setLocationRelativeTo(owner);
+
+        sendBtn.addActionListener(e -> sendRequest());
+        cancelBtn.addActionListener(e -> dispose());
+    }
+
+    private void sendRequest() {
+        String departure = departureField.getText().trim();
+        String destination = destinationField.getText().trim();
+        if (departure.isEmpty() || destination.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please enter both cities!");
+            return;
+        }
+        if (departure.equalsIgnoreCase(destination)) {
+            JOptionPane.showMessageDialog(this, "Departure and destination must differ!");
+            return;
+        }
+        LocalDate date = ((Date) dateSpinner.getValue()).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        if (date.isBefore(LocalDate.now())) {
+            JOptionPane.showMessageDialog(this, "Please choose a date in the future!");
+            return;
+        }
+
+        sendBtn.setEnabled(false);
+        AsyncData.load(this, () -> FlightRepository.insertRequest(departure, destination, date),
+                ignored -> {
+                    JOptionPane.showMessageDialog(this, "Thank you! We will let you know if we add this flight.");
+                    dispose();
+                },
+                e -> {
+                    sendBtn.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Request failed: " + AsyncData.describe(e));
+                });
+    }
+}
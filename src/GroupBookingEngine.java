@@ -0,0 +1,163 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Books several passengers on one flight, or on every leg of an itinerary, all or nothing. */
+public class GroupBookingEngine {
+    private GroupBookingEngine() {
+    }
+
+    /**
+     * One flight of the group's trip; {@code seats} is {@code null} to have seats chosen, {@code quotedFare}
+     * the per-seat fare the customer was shown, or {@code null} to book at today's fare.
+     */
+    public record Leg(int flightId, int passengers, List<String> seats, Double quotedFare) {
+    }
+
+    public record Ticket(int ticketId, int flightId, String seat, double fare) {
+    }
+
+    private record Booked(List<Ticket> tickets, List<DomainEvent> events) {
+    }
+
+    /** Returns the tickets leg by leg, in the order the legs were given. */
+    public static List<Ticket> book(int userId, List<Leg> legs) throws SQLException {
+        Booked booked = Transactions.retry(() -> tryBook(userId, legs));
+        DomainEvents.publish(booked.events());
+        return booked.tickets();
+    }
+
+    private static Booked tryBook(int userId, List<Leg> legs) throws SQLException {
+        List<Leg> lockOrder = new ArrayList<>(legs);
+        lockOrder.sort(Comparator.comparingInt(Leg::flightId));
+
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE flights SET available_seats = available_seats - ?, seat_version = seat_version + 1 " +
+                                "WHERE flight_id = ? AND available_seats >= ?")) {
+                    for (Leg leg : lockOrder) {
+                        pstmt.setInt(1, leg.passengers());
+                        pstmt.setInt(2, leg.flightId());
+                        pstmt.setInt(3, leg.passengers());
+                        if (pstmt.executeUpdate() == 0) {
+                            throw new SQLException("Not enough seats left on flight BA" + leg.flightId()
+                                    + " for " + leg.passengers() + " passengers");
+                        }
+                    }
+                }
+
+                List<List<String>> seatsByLeg = new ArrayList<>(legs.size());
+                List<Double> fares = new ArrayList<>(legs.size());
+                for (Leg leg : legs) {
+                    seatsByLeg.add(leg.seats() == null ? chooseSeats(conn, leg) : checkSeats(conn, leg));
+                    double fare = SeatReservationEngine.fare(conn, leg.flightId(), leg.passengers());
+                    if (leg.quotedFare() != null && Math.abs(fare - leg.quotedFare()) >= 0.005) {
+                        FlightCatalog.shared().markStale();
+                        throw new SQLException(String.format("The fare for flight BA%d is now €%.2f",
+                                leg.flightId(), fare));
+                    }
+                    fares.add(fare);
+                }
+
+                List<Ticket> tickets = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO tickets (user_id, flight_id, seat_number, price_paid) VALUES (?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    for (int i = 0; i < legs.size(); i++) {
+                        for (String seat : seatsByLeg.get(i)) {
+                            pstmt.setInt(1, userId);
+                            pstmt.setInt(2, legs.get(i).flightId());
+                            pstmt.setString(3, seat);
+                            pstmt.setDouble(4, fares.get(i));
+                            pstmt.addBatch();
+                        }
+                    }
+                    pstmt.executeBatch();
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        for (int i = 0; i < legs.size(); i++) {
+                            for (String seat : seatsByLeg.get(i)) {
+                                if (!keys.next()) throw new SQLException("No ticket id generated");
+                                tickets.add(new Ticket(keys.getInt(1), legs.get(i).flightId(), seat, fares.get(i)));
+                            }
+                        }
+                    }
+                }
+
+                Map<Integer, DomainEvent.SeatCount> seats = FlightRepository.findSeatCounts(conn,
+                        legs.stream().map(Leg::flightId).toList());
+                List<DomainEvent> events = new ArrayList<>(tickets.size());
+                for (Ticket t : tickets) {
+                    events.add(DomainEvent.booked(t.ticketId(), userId, t.flightId(), t.seat(),
+                            seats.get(t.flightId())));
+                }
+                ChangeLog.append(conn, events);
+                conn.commit();
+                return new Booked(tickets, events);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /** Called after the decrement, which holds the flight row lock. */
+    private static List<String> chooseSeats(Connection conn, Leg leg) throws SQLException {
+        FlightRepository.Seating seating = FlightRepository.findSeating(conn, leg.flightId());
+        if (seating == null) throw new SQLException("Flight BA" + leg.flightId() + " not found");
+        // The group's seats are already out of available_seats but not yet in tickets.
+        SeatMap map = SeatMapRegistry.build(leg.flightId(), seating, leg.passengers());
+        List<String> seats = map.nextFreeGroup(leg.passengers());
+        if (seats.isEmpty()) throw new SQLException("Not enough seats left on flight BA" + leg.flightId());
+        return seats;
+    }
+
+    private static List<String> checkSeats(Connection conn, Leg leg) throws SQLException {
+        String list = Transactions.placeholders(leg.seats().size());
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT seat_number FROM tickets WHERE flight_id = ? AND seat_number IN (" + list + ") " +
+                        "UNION ALL SELECT seat_number FROM seat_holds WHERE flight_id = ? AND seat_number IN (" + list + ")")) {
+            int p = 1;
+            pstmt.setInt(p++, leg.flightId());
+            for (String seat : leg.seats()) pstmt.setString(p++, seat);
+            pstmt.setInt(p++, leg.flightId());
+            for (String seat : leg.seats()) pstmt.setString(p++, seat);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    String seat = rs.getString(1);
+                    SeatMapRegistry.seatTaken(leg.flightId(), seat);
+                    throw new SQLException("Seat " + seat + " is already taken on flight BA" + leg.flightId());
+                }
+            }
+        }
+        return leg.seats();
+    }
+
+    /** Rejects repeated flights, empty legs and seat lists that do not match the passenger count. */
+    static void validate(List<Leg> legs, int maxPassengers) {
+        if (legs.isEmpty()) throw new IllegalArgumentException("At least one flight is required");
+        Set<Integer> flights = new HashSet<>();
+        for (Leg leg : legs) {
+            if (!flights.add(leg.flightId())) {
+                throw new IllegalArgumentException("Flight BA" + leg.flightId() + " appears more than once");
+            }
+            if (leg.passengers() < 1 || leg.passengers() > maxPassengers) {
+                throw new IllegalArgumentException("passengers must be between 1 and " + maxPassengers);
+            }
+            if (leg.seats() != null) {
+                if (leg.seats().size() != leg.passengers()) {
+                    throw new IllegalArgumentException("Flight BA" + leg.flightId() + " needs "
+                            + leg.passengers() + " seats");
+                }
+                if (new HashSet<>(leg.seats()).size() != leg.seats().size()) {
+                    throw new IllegalArgumentException("The same seat is given twice on flight BA" + leg.flightId());
+                }
+            }
+        }
+    }
+}
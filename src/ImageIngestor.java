@@ -0,0 +1,133 @@
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/** Turns a user-picked photo into the stored avatar. */
+public class ImageIngestor {
+    private static final ImageIngestor DEFAULTS = new ImageIngestor(
+            Integer.getInteger("flymanagement.avatar.size", 150),
+            System.getProperty("flymanagement.avatar.format", "jpg"),
+            Float.parseFloat(System.getProperty("flymanagement.avatar.quality", "0.85")),
+            Long.getLong("flymanagement.avatar.decodeBudgetBytes", 16L * 1024 * 1024));
+
+    private final int size;
+    private final String format;
+    private final float quality;
+    private final long decodeBudgetBytes;
+
+    public ImageIngestor(int size, String format, float quality, long decodeBudgetBytes) {
+        this.size = size;
+        this.format = format;
+        this.quality = quality;
+        this.decodeBudgetBytes = decodeBudgetBytes;
+    }
+
+    public static ImageIngestor defaults() {
+        return DEFAULTS;
+    }
+
+    public Result ingest(File file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            if (in == null) throw new IOException("Cannot open " + file.getName());
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) throw new IOException("Unsupported image format");
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int side = Math.min(width, height);
+
+                int subsampling = Math.max(1, side / (size * 2));
+                while ((long) (side / subsampling) * (side / subsampling) * 4 > decodeBudgetBytes) {
+                    subsampling++;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle((width - side) / 2, (height - side) / 2, side, side));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                BufferedImage avatar = toAvatar(decoded);
+                return new Result(avatar, encode(avatar));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public byte[] encode(BufferedImage image) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) throw new IOException("No image writer for " + format);
+
+        ImageWriter writer = writers.next();
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String[] types = param.getCompressionTypes();
+                if (param.getCompressionType() == null && types != null && types.length > 0) {
+                    param.setCompressionType(types[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+            out.flush();
+            return bytes.toByteArray();
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    public BufferedImage toAvatar(BufferedImage source) {
+        return downscale(source, size, size, opaque() ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+
+    public static BufferedImage downscale(BufferedImage source, int width, int height, int type) {
+        Image current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        // Halve in steps while far above the target; one bilinear pass loses too much detail otherwise.
+        while (w / 2 >= width && h / 2 >= height) {
+            w /= 2;
+            h /= 2;
+            current = draw(current, w, h, type);
+        }
+        return draw(current, width, height, type);
+    }
+
+    private boolean opaque() {
+        return format.equalsIgnoreCase("jpg") || format.equalsIgnoreCase("jpeg") || format.equalsIgnoreCase("bmp");
+    }
+
+    private static BufferedImage draw(Image source, int width, int height, int type) {
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D g = target.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return target;
+    }
+
+    public record Result(BufferedImage preview, byte[] bytes) {
+    }
+}
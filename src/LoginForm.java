@@ -1,5 +1,4 @@
 import javax.swing.*;
-import java.sql.SQLException;
 
 public class LoginForm extends JFrame {
     private JTextField emailField;
@@ -26,22 +25,26 @@ public class LoginForm extends JFrame {
         String email = emailField.getText().trim();
         String password = new String(passwordField.getPassword()).trim();
 
-        if (!email.matches("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$")) {
+        if (!email.matches(BookingService.EMAIL_PATTERN)) {
             JOptionPane.showMessageDialog(this, "Invalid email format!");
             return;
         }
 
-        try {
-            User user = DBConnection.login(email, password);
-            if (user != null) {
-                new WelcomeFrame(user).setVisible(true);
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Invalid credentials!");
-            }
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this, "Database error: " + ex.getMessage());
-        }
+        loginBtn.setEnabled(false);
+        AsyncData.load(this, () -> BookingService.login(email, password),
+                user -> {
+                    loginBtn.setEnabled(true);
+                    if (user != null) {
+                        new WelcomeFrame(user).setVisible(true);
+                        dispose();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Invalid credentials!");
+                    }
+                },
+                e -> {
+                    loginBtn.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Database error: " + AsyncData.describe(e));
+                });
     }
 
     public static void main(String[] args) {
@@ -1,14 +1,69 @@
 import javax.swing.*;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class Main {
+    private static final Logger LOG = Logger.getLogger(Main.class.getName());
+    private static final int MIGRATION_ATTEMPTS = 3;
+
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
+        EdtWatchdog.install();
+        Metrics.startExport();
+        // Nothing may touch the database before the schema is current, so login waits for the migration.
+        if (!migrate()) {
+            JOptionPane.showMessageDialog(null, "The database could not be upgraded. "
+                    + "Check the connection and start the application again.", "Startup error",
+                    JOptionPane.ERROR_MESSAGE);
+            System.exit(1);
+        }
+        SwingUtilities.invokeLater(Main::showLogin);
+
+        Thread warmUp = new Thread(() -> {
+            // Each job retries on its own schedule, so one failing to start must not keep the others off.
+            start("Seat reconciler", CancellationService::startReconciler);
+            start("Change log polling", ChangeLog::startPolling);
+            start("Seat hold expiry", SeatHoldService::startExpiry);
+            DBConnection.warmUpPool();
+            PasswordHasher.calibrate();
+        }, "db-pool-warmup");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    private static void showLogin() {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+            new LoginForm().setVisible(true);
+        } catch (Exception ex) {
+            JOptionPane.showMessageDialog(null, "Startup error: " + ex.getMessage());
+        }
+    }
+
+    private static boolean migrate() {
+        for (int attempt = 1; attempt <= MIGRATION_ATTEMPTS; attempt++) {
+            try {
+                SchemaMigrator.migrate();
+                return true;
+            } catch (SQLException e) {
+                LOG.log(Level.WARNING, "Schema migration failed (attempt " + attempt + ")", e);
+            }
+            if (attempt == MIGRATION_ATTEMPTS) return false;
             try {
-                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
-                new LoginForm().setVisible(true);
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(null, "Startup error: " + ex.getMessage());
+                Thread.sleep(5_000L * attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
             }
-        });
+        }
+        return false;
+    }
+
+    private static void start(String name, Runnable job) {
+        try {
+            job.run();
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, name + " failed to start", e);
+        }
     }
 }
\ No newline at end of file
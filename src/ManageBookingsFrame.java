@@ -1,8 +1,7 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import java.sql.*;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.List;
 
 public class ManageBookingsFrame extends JFrame {
     private JTable bookingsTable;
@@ -16,100 +15,165 @@ public class ManageBookingsFrame extends JFrame {
     private JPanel UpdateField;
 
     private final User currentUser;
-    private DefaultTableModel tableModel;
+    private final UserSession session;
+    private final WelcomeFrame welcomeFrame;
+    private PagedTableModel<Booking> tableModel;
+    private final AsyncData.Latest flightOptionsRequest = new AsyncData.Latest();
+    private final AsyncData.Latest seatMapRequest = new AsyncData.Latest();
 
-    public ManageBookingsFrame(User user) {
+    public ManageBookingsFrame(User user, WelcomeFrame welcomeFrame) {
         currentUser = user;
+        session = UserSession.of(user);
+        this.welcomeFrame = welcomeFrame;
         setContentPane(mainPanel);
         setTitle("Manage Bookings");
         setSize(600, 500);
         setLocationRelativeTo(null);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
 
         initializeTable();
-        loadBookings();
         loadFlightOptions();
         setupListeners();
+        DomainEvents.subscribe(this, this::onDomainEvent);
     }
 
     private void initializeTable() {
-        tableModel = new DefaultTableModel(
-                new Object[]{"Ticket ID", "Flight No", "From", "To", "Departure", "Seat", "Class"}, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        bookingsTable.setModel(tableModel);
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        tableModel = new PagedTableModel<>(this, List.of(
+                new PagedTableModel.Column<Booking>("Ticket ID", Booking::ticketId),
+                new PagedTableModel.Column<Booking>("Flight No", b -> "BA" + b.flightId()),
+                new PagedTableModel.Column<Booking>("From", Booking::departureCity),
+                new PagedTableModel.Column<Booking>("To", Booking::destinationCity),
+                new PagedTableModel.Column<Booking>("Departure", b -> format.format(b.departureTime())),
+                new PagedTableModel.Column<Booking>("Seat", Booking::seatNumber),
+                new PagedTableModel.Column<Booking>("Class", b -> b.exclusive() ? "Business" : "Economy")
+        ), 50, 6);
+        tableModel.attach(bookingsTable);
+        bookingsTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        tableModel.setSource(PagedTableModel.PageSource.timed("ui.loadBookings", new SessionBookingSource(session)));
+        bookingsTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) loadFlightOptions();
+        });
     }
 
-    private void loadBookings() {
-        tableModel.setRowCount(0);
-        String query = "SELECT t.ticket_id, f.flight_id, f.departure_city, f.destination_city, " +
-                "f.departure_time, t.seat_number, f.is_exclusive " +
-                "FROM tickets t JOIN flights f ON t.flight_id = f.flight_id " +
-                "WHERE t.user_id = ?";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            pstmt.setInt(1, currentUser.getUserId());
-            ResultSet rs = pstmt.executeQuery();
-
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm");
-            while (rs.next()) {
-                tableModel.addRow(new Object[]{
-                        rs.getInt("ticket_id"),
-                        "BA" + rs.getInt("flight_id"),
-                        rs.getString("departure_city"),
-                        rs.getString("destination_city"),
-                        sdf.format(rs.getTimestamp("departure_time")),
-                        rs.getString("seat_number"),
-                        rs.getBoolean("is_exclusive") ? "Business" : "Economy"
-                });
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading bookings: " + e.getMessage());
-        }
+    /** Offers the flights the selected booking can move to: same route, nearby dates, seats left. */
+    private void loadFlightOptions() {
+        int selectedRow = bookingsTable.getSelectedRow();
+        Booking booking = selectedRow == -1 ? null : tableModel.getRow(selectedRow);
+        flightOptionsRequest.load(this,
+                () -> booking == null ? List.<Flight>of() : session.rebookingCandidates(booking),
+                this::showFlightOptions,
+                e -> JOptionPane.showMessageDialog(this, "Error loading flights: " + AsyncData.describe(e)));
     }
 
-    private void loadFlightOptions() {
+    private void showFlightOptions(List<Flight> flights) {
+        Object selected = flightComboBox.getSelectedItem();
         flightComboBox.removeAllItems();
-        try {
-            ArrayList<Integer> flights = DBConnection.getAvailableFlights();
-            for (Integer flightId : flights) {
-                flightComboBox.addItem("BA" + flightId);
+        for (Flight flight : flights) {
+            flightComboBox.addItem("BA" + flight.flightId());
+        }
+        if (selected != null) flightComboBox.setSelectedItem(selected);
+    }
+
+    /** Applies booking changes from this and other windows or terminals to the table and flight list. */
+    private void onDomainEvent(DomainEvent event) {
+        if (event.type() == DomainEvent.Type.FLIGHTS_ADDED || event.type() == DomainEvent.Type.RECONCILED) {
+            loadFlightOptions();
+            return;
+        }
+        if (event.userId() == currentUser.getUserId()) updateBookingRows(event);
+        loadFlightOptions();
+    }
+
+    private void updateBookingRows(DomainEvent event) {
+        int ticketId = event.ticketId();
+        switch (event.type()) {
+            case BOOKED -> {
+                // New tickets have the highest id, so they only land at the end in the default order.
+                if (tableModel.getSortColumn() == 0 && tableModel.isAscending()) {
+                    tableModel.rowsAppended(1);
+                } else {
+                    tableModel.reload();
+                }
+            }
+            case CANCELLED -> tableModel.removeRows(b -> b.ticketId() == ticketId);
+            case MOVED -> {
+                Flight flight = FlightCatalog.shared().get(event.flightId());
+                if (flight == null) {
+                    tableModel.reload();
+                    return;
+                }
+                Booking moved = new Booking(ticketId, flight.flightId(), flight.departureCity(),
+                        flight.destinationCity(), flight.departureTime(), event.seat(), flight.exclusive());
+                tableModel.updateRows(b -> b.ticketId() == ticketId ? moved : b);
+            }
+            default -> {
             }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading flights: " + e.getMessage());
         }
     }
 
     private void setupListeners() {
+        flightComboBox.addActionListener(e -> suggestSeat());
         cancelButton.addActionListener(e -> cancelBooking());
         updateButton.addActionListener(e -> updateBooking());
         backButton.addActionListener(e -> {
-            new WelcomeFrame(currentUser).setVisible(true);
+            welcomeFrame.setVisible(true);
+            welcomeFrame.toFront();
             dispose();
         });
     }
 
+    private void suggestSeat() {
+        String selectedFlight = (String) flightComboBox.getSelectedItem();
+        if (selectedFlight == null) return;
+        int flightId = Integer.parseInt(selectedFlight.replace("BA", ""));
+        seatMapRequest.load(this, () -> SeatMapRegistry.get(flightId),
+                seatMap -> {
+                    List<String> free = seatMap.nextFreeAdjacent(1);
+                    newSeatField.setToolTipText(seatMap.freeCount() + " free seats, rows 1-" + seatMap.getRows()
+                            + ", columns " + seatMap.getColumns());
+                    String typed = newSeatField.getText().trim().toUpperCase();
+                    if (!free.isEmpty() && (typed.isEmpty() || !seatMap.isFree(typed))) {
+                        newSeatField.setText(free.get(0));
+                    }
+                },
+                e -> newSeatField.setToolTipText(null));
+    }
+
     private void cancelBooking() {
-        int selectedRow = bookingsTable.getSelectedRow();
-        if (selectedRow == -1) {
+        int[] selectedRows = bookingsTable.getSelectedRows();
+        if (selectedRows.length == 0) {
             JOptionPane.showMessageDialog(this, "Please select a booking to cancel");
             return;
         }
 
-        int ticketId = (int) tableModel.getValueAt(selectedRow, 0);
-        try {
-            if (DBConnection.cancelTicket(ticketId)) {
-                JOptionPane.showMessageDialog(this, "Booking canceled successfully");
-                loadBookings();
-                loadFlightOptions();
-            }
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this, "Cancel failed: " + ex.getMessage());
+        List<Integer> ticketIds = new ArrayList<>();
+        for (int row : selectedRows) {
+            Booking booking = tableModel.getRow(row);
+            if (booking != null) ticketIds.add(booking.ticketId());
+        }
+        if (ticketIds.isEmpty()) return;
+        if (ticketIds.size() > 1 && JOptionPane.showConfirmDialog(this,
+                "Cancel " + ticketIds.size() + " bookings?", "Cancel bookings",
+                JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
         }
+
+        int userId = currentUser.getUserId();
+        cancelButton.setEnabled(false);
+        AsyncData.load(this, () -> BookingService.cancel(userId, ticketIds),
+                canceled -> {
+                    cancelButton.setEnabled(true);
+                    if (canceled > 0) {
+                        JOptionPane.showMessageDialog(this, canceled == 1
+                                ? "Booking canceled successfully"
+                                : canceled + " bookings canceled successfully");
+                    }
+                },
+                e -> {
+                    cancelButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Cancel failed: " + AsyncData.describe(e));
+                });
     }
 
     private void updateBooking() {
@@ -133,7 +197,7 @@ public class ManageBookingsFrame extends JFrame {
             return;
         }
 
-        if (!newSeat.matches("^[A-Z][0-9]+$")) {
+        if (!newSeat.matches(BookingService.SEAT_PATTERN)) {
             JOptionPane.showMessageDialog(this,
                     "Invalid seat format!\nMust start with a letter followed by numbers\nExample: A12");
             return;
@@ -151,17 +215,35 @@ public class ManageBookingsFrame extends JFrame {
             return;
         }
 
-        int ticketId = (int) tableModel.getValueAt(selectedRow, 0);
+        Booking booking = tableModel.getRow(selectedRow);
+        if (booking == null) return;
+        int ticketId = booking.ticketId();
         int newFlightId = Integer.parseInt(selectedFlight.replace("BA", ""));
 
-        try {
-            if (DBConnection.updateBooking(ticketId, newFlightId, newSeat)) {
-                JOptionPane.showMessageDialog(this, "Booking updated successfully");
-                loadBookings();
-                loadFlightOptions();
-            }
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this, "Update failed: " + ex.getMessage());
+        SeatMap seatMap = SeatMapRegistry.getIfLoaded(newFlightId);
+        if (seatMap != null && !seatMap.exists(newSeat)) {
+            JOptionPane.showMessageDialog(this, "Seat " + newSeat + " does not exist on " + selectedFlight
+                    + "\nRows 1-" + seatMap.getRows() + ", columns " + seatMap.getColumns());
+            return;
         }
+        if (seatMap != null && !seatMap.isFree(newSeat)) {
+            JOptionPane.showMessageDialog(this, "Seat " + newSeat + " is already taken on " + selectedFlight);
+            return;
+        }
+
+        updateButton.setEnabled(false);
+        int userId = currentUser.getUserId();
+        AsyncData.load(this, () -> {
+                    BookingService.rebook(userId, ticketId, newFlightId, newSeat);
+                    return true;
+                },
+                updated -> {
+                    updateButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Booking updated successfully");
+                },
+                e -> {
+                    updateButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Update failed: " + AsyncData.describe(e));
+                });
     }
 }
\ No newline at end of file
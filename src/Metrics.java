@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Named latency timers with fixed log-linear histograms. */
+public class Metrics {
+    private static final Logger LOG = Logger.getLogger(Metrics.class.getName());
+    private static final ConcurrentHashMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService exporter;
+
+    private Metrics() {
+    }
+
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, n -> new Timer());
+    }
+
+    /** Times {@code call} under {@code name}; exceptions count as errors and collections as rows returned. */
+    public static <T, E extends Exception> T time(String name, Call<T, E> call) throws E {
+        Timer timer = timer(name);
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            timer.record(System.nanoTime() - start);
+            if (result instanceof Collection<?> rows) timer.rows(rows.size());
+            return result;
+        } catch (Exception | Error e) {
+            timer.record(System.nanoTime() - start);
+            timer.error();
+            throw e;
+        }
+    }
+
+    public static Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        TIMERS.forEach((name, timer) -> snapshots.put(name, timer.snapshot()));
+        return snapshots;
+    }
+
+    public static synchronized void startExport() {
+        String file = System.getProperty("flymanagement.metrics.file",
+                Path.of(System.getProperty("user.home"), ".flymanagement", "metrics.json").toString());
+        long interval = Long.getLong("flymanagement.metrics.intervalMs", 60_000L);
+        if (exporter != null || file.isEmpty() || interval <= 0) return;
+
+        Path target = Path.of(file);
+        exporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-export");
+            t.setDaemon(true);
+            return t;
+        });
+        exporter.scheduleWithFixedDelay(() -> {
+            try {
+                export(target);
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.FINE, "Could not write metrics to " + target, e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                export(target);
+            } catch (IOException | RuntimeException ignored) {
+            }
+        }, "metrics-final-export"));
+    }
+
+    public static void export(Path target) throws IOException {
+        StringBuilder json = new StringBuilder("{\n  \"timestamp\": ").append(System.currentTimeMillis());
+        json.append(",\n  \"timers\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Snapshot> e : snapshot().entrySet()) {
+            json.append(separator).append("    \"").append(e.getKey()).append("\": ").append(e.getValue().toJson());
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"pool\": ").append(toJson(DBConnection.getPoolStats()));
+        json.append(",\n  \"edt\": ").append(toJson(EdtWatchdog.getStats()));
+        json.append(",\n  \"bcrypt\": ").append(toJson(PasswordHasher.getStats()));
+        json.append(",\n  \"slowestStatements\": {");
+        separator = "\n";
+        int shown = 0;
+        for (Map.Entry<String, StatementStats.Stats> e : StatementStats.snapshot().entrySet()) {
+            if (shown++ == 20) break;
+            json.append(separator).append("    \"").append(escape(e.getKey())).append("\": ")
+                    .append(toJson(e.getValue()));
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.writeString(temp, json, StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** One JSON field per record component: numbers and booleans as they are, anything else as a string. */
+    static String toJson(Record stats) {
+        if (stats == null) return "null";
+        StringBuilder json = new StringBuilder("{");
+        String separator = "";
+        for (RecordComponent component : stats.getClass().getRecordComponents()) {
+            Object value;
+            try {
+                value = component.getAccessor().invoke(stats);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot read " + component.getName(), e);
+            }
+            json.append(separator).append('"').append(component.getName()).append("\": ");
+            if (value == null || value instanceof Number || value instanceof Boolean) {
+                json.append(value);
+            } else {
+                json.append('"').append(escape(value.toString())).append('"');
+            }
+            separator = ", ";
+        }
+        return json.append('}').toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", " ");
+    }
+
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    public static final class Timer {
+        private static final int BUCKETS = 320;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final AtomicLong maxMicros = new AtomicLong();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        private Timer() {
+        }
+
+        public void record(long nanos) {
+            long micros = Math.max(0, nanos / 1_000);
+            buckets.incrementAndGet(bucket(micros));
+            count.increment();
+            totalMicros.add(micros);
+            if (micros > maxMicros.get()) maxMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        public void error() {
+            errors.increment();
+        }
+
+        public void rows(long n) {
+            rows.add(n);
+        }
+
+        Snapshot snapshot() {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            long n = count.sum();
+            return new Snapshot(n, errors.sum(), rows.sum(), n == 0 ? 0 : totalMicros.sum() / n,
+                    percentile(counts, total, 0.50), percentile(counts, total, 0.90),
+                    percentile(counts, total, 0.99), maxMicros.get());
+        }
+
+        static int bucket(long micros) {
+            if (micros < 8) return (int) micros;
+            int exp = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) ((micros >>> (exp - 3)) & 7);
+            return Math.min(BUCKETS - 1, (exp - 2) * 8 + sub);
+        }
+
+        static long lowerBound(int bucket) {
+            if (bucket < 8) return bucket;
+            return (8L + bucket % 8) << (bucket / 8 - 1);
+        }
+
+        private static long percentile(long[] counts, long total, double p) {
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(total * p);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return (lowerBound(i) + lowerBound(i + 1)) / 2;
+            }
+            return lowerBound(counts.length - 1);
+        }
+    }
+
+    public record Snapshot(long count, long errors, long rows, long meanMicros, long p50Micros, long p90Micros,
+                           long p99Micros, long maxMicros) {
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"count\": %d, \"errors\": %d, \"rows\": %d, \"meanMicros\": %d, "
+                            + "\"p50Micros\": %d, \"p90Micros\": %d, \"p99Micros\": %d, \"maxMicros\": %d}",
+                    count, errors, rows, meanMicros, p50Micros, p90Micros, p99Micros, maxMicros);
+        }
+    }
+}
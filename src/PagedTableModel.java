@@ -0,0 +1,248 @@
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.Component;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/** Table model that fetches pages on demand as the table scrolls. Must only be touched on the EDT. */
+public class PagedTableModel<T> extends AbstractTableModel {
+
+    public interface PageSource<T> {
+        int count() throws SQLException;
+
+        /**
+         * Returns up to {@code limit} rows in the given order. {@code after} is the last row of the previous
+         * page when it is known, for keyset paging; otherwise the source seeks to {@code offset}.
+         */
+        List<T> fetch(int offset, T after, int limit, int sortColumn, boolean ascending) throws SQLException;
+
+        /** Wraps {@code source} so its counts and page fetches are timed under {@code name}. */
+        static <T> PageSource<T> timed(String name, PageSource<T> source) {
+            return new PageSource<>() {
+                @Override
+                public int count() throws SQLException {
+                    return Metrics.time(name + ".count", source::count);
+                }
+
+                @Override
+                public List<T> fetch(int offset, T after, int limit, int sortColumn, boolean ascending)
+                        throws SQLException {
+                    return Metrics.time(name + ".page", () -> source.fetch(offset, after, limit, sortColumn, ascending));
+                }
+            };
+        }
+    }
+
+    public record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    private final Component owner;
+    private final List<Column<T>> columns;
+    private final int pageSize;
+    private final int maxPages;
+
+    private PageSource<T> source;
+    private int rowCount;
+    private int sortColumn;
+    private boolean ascending = true;
+    private long generation;
+    private long pageEpoch;
+
+    private final Map<Integer, List<T>> pages;
+    private final Map<Integer, T> pageTails = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private final AsyncData.Latest countRequest = new AsyncData.Latest();
+
+    public PagedTableModel(Component owner, List<Column<T>> columns, int pageSize, int maxPages) {
+        this.owner = owner;
+        this.columns = columns;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.pages = new LinkedHashMap<>(maxPages * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > PagedTableModel.this.maxPages;
+            }
+        };
+    }
+
+    public void attach(JTable table) {
+        table.setModel(this);
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.convertColumnIndexToModel(table.columnAtPoint(e.getPoint()));
+                if (column >= 0) sortBy(column);
+            }
+        });
+    }
+
+    public void setSource(PageSource<T> source) {
+        this.source = source;
+        reload();
+    }
+
+    public void reload() {
+        long current = ++generation;
+        PageSource<T> src = source;
+        if (src == null) return;
+        countRequest.load(owner, src::count,
+                count -> {
+                    if (current != generation) return;
+                    pages.clear();
+                    pageTails.clear();
+                    loading.clear();
+                    rowCount = count;
+                    fireTableDataChanged();
+                },
+                e -> JOptionPane.showMessageDialog(owner, "Error loading data: " + AsyncData.describe(e)));
+    }
+
+    /** Replaces loaded rows in place, e.g. after a seat count changed; unloaded rows are fetched fresh anyway. */
+    public void updateRows(UnaryOperator<T> update) {
+        List<Integer> changed = new ArrayList<>();
+        for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+            List<T> rows = entry.getValue();
+            List<T> copy = null;
+            for (int i = 0; i < rows.size(); i++) {
+                T updated = update.apply(rows.get(i));
+                if (updated == rows.get(i)) continue;
+                if (copy == null) copy = new ArrayList<>(rows);
+                copy.set(i, updated);
+                changed.add(entry.getKey() * pageSize + i);
+            }
+            if (copy != null) entry.setValue(copy);
+        }
+        for (int row : changed) fireTableRowsUpdated(row, row);
+    }
+
+    /**
+     * Removes loaded rows matching {@code filter} without recounting. Pages after the first removed row are
+     * dropped and fetched again when scrolled to. Falls back to {@link #reload()} when no loaded row matches,
+     * since the row count is then unknown.
+     */
+    public void removeRows(Predicate<T> filter) {
+        TreeSet<Integer> removed = new TreeSet<>();
+        pages.forEach((page, rows) -> {
+            for (int i = 0; i < rows.size(); i++) {
+                if (filter.test(rows.get(i))) removed.add(page * pageSize + i);
+            }
+        });
+        if (removed.isEmpty()) {
+            reload();
+            return;
+        }
+
+        int firstPage = removed.first() / pageSize;
+        List<T> kept = new ArrayList<>(pages.get(firstPage));
+        kept.removeIf(filter);
+        pages.keySet().removeIf(page -> page >= firstPage);
+        pageTails.keySet().removeIf(page -> page >= firstPage);
+        pages.put(firstPage, kept);
+        discardPendingFetches();
+
+        rowCount -= removed.size();
+        for (Integer row : removed.descendingSet()) fireTableRowsDeleted(row, row);
+    }
+
+    /** Grows the table by {@code count} rows at the end, for sources where new rows sort last. */
+    public void rowsAppended(int count) {
+        if (count <= 0) return;
+        int first = rowCount;
+        pages.keySet().removeIf(page -> page >= first / pageSize);
+        pageTails.keySet().removeIf(page -> page >= first / pageSize);
+        discardPendingFetches();
+        rowCount += count;
+        fireTableRowsInserted(first, rowCount - 1);
+    }
+
+    private void discardPendingFetches() {
+        pageEpoch++;
+        loading.clear();
+    }
+
+    public void sortBy(int column) {
+        if (column == sortColumn) {
+            ascending = !ascending;
+        } else {
+            sortColumn = column;
+            ascending = true;
+        }
+        reload();
+    }
+
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public T getRow(int row) {
+        List<T> page = pages.get(row / pageSize);
+        int index = row % pageSize;
+        return page != null && index < page.size() ? page.get(index) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.get(column).name();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        T value = getRow(row);
+        if (value == null) {
+            requestPage(row / pageSize);
+            return column == 0 ? "…" : null;
+        }
+        return columns.get(column).value().apply(value);
+    }
+
+    private void requestPage(int page) {
+        if (source == null || !loading.add(page)) return;
+
+        long current = generation;
+        long epoch = pageEpoch;
+        PageSource<T> src = source;
+        T after = page > 0 ? pageTails.get(page - 1) : null;
+        int sort = sortColumn;
+        boolean asc = ascending;
+        AsyncData.load(owner, () -> src.fetch(page * pageSize, after, pageSize, sort, asc),
+                rows -> {
+                    if (current != generation || epoch != pageEpoch) return;
+                    loading.remove(page);
+                    pages.put(page, rows);
+                    if (!rows.isEmpty()) pageTails.put(page, rows.get(rows.size() - 1));
+                    int first = page * pageSize;
+                    int last = Math.min(rowCount, first + pageSize) - 1;
+                    if (last >= first) fireTableRowsUpdated(first, last);
+                },
+                e -> {
+                    if (current == generation && epoch == pageEpoch) loading.remove(page);
+                });
+    }
+}
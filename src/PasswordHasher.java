@@ -0,0 +1,144 @@
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/** Runs BCrypt on a small dedicated pool. */
+public class PasswordHasher {
+    private static final Logger LOG = Logger.getLogger(PasswordHasher.class.getName());
+
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 14;
+    private static final long TARGET_MILLIS = Long.getLong("flymanagement.bcrypt.targetMs", 250L);
+    private static final long WAIT_MILLIS = Long.getLong("flymanagement.bcrypt.waitMs", 10_000L);
+
+    private static final ThreadPoolExecutor EXECUTOR;
+    private static final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private static final LongAdder completed = new LongAdder();
+    private static final LongAdder rejected = new LongAdder();
+    private static final LongAdder hashNanos = new LongAdder();
+    private static final AtomicLong calibratedMillis = new AtomicLong();
+    private static volatile int targetCost = MIN_COST;
+
+    static {
+        int threads = Integer.getInteger("flymanagement.bcrypt.threads",
+                Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        AtomicInteger counter = new AtomicInteger();
+        EXECUTOR = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Integer.getInteger("flymanagement.bcrypt.queue", threads * 8)),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private PasswordHasher() {
+    }
+
+    public static void calibrate() {
+        int cost = MIN_COST;
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration-password", BCrypt.gensalt(cost));
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        calibratedMillis.set(millis);
+        while (cost < MAX_COST && millis * 2 <= TARGET_MILLIS) {
+            cost++;
+            millis *= 2;
+        }
+        targetCost = cost;
+        LOG.info("BCrypt cost " + cost + " (~" + millis + " ms per hash, target " + TARGET_MILLIS + " ms)");
+    }
+
+    public static String hash(String password) throws SQLException {
+        int cost = targetCost;
+        return await(submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost))));
+    }
+
+    public static boolean verify(String password, String hash) throws SQLException {
+        if (hash == null) return false;
+        return await(submit(() -> BCrypt.checkpw(password, hash)));
+    }
+
+    public static boolean needsRehash(String hash) {
+        return hash != null && costOf(hash) < targetCost;
+    }
+
+    public static CompletableFuture<String> rehashAsync(String password) {
+        int cost = targetCost;
+        return submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    static int costOf(String hash) {
+        // $2a$12$...
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    public static Stats getStats() {
+        long done = completed.sum();
+        return new Stats(EXECUTOR.getActiveCount(), EXECUTOR.getQueue().size(), maxQueueDepth.get(),
+                EXECUTOR.getQueue().remainingCapacity(), done, rejected.sum(),
+                done == 0 ? 0 : hashNanos.sum() / done / 1_000_000, targetCost, calibratedMillis.get());
+    }
+
+    private static <T> CompletableFuture<T> submit(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            EXECUTOR.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    result.complete(work.get());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    hashNanos.add(System.nanoTime() - start);
+                    completed.increment();
+                }
+            });
+            maxQueueDepth.accumulateAndGet(EXECUTOR.getQueue().size(), Math::max);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while checking password", e);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new SQLTransientException("Sign-in is taking too long, please try again", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new SQLTransientException("Too many sign-ins in progress, please try again in a moment",
+                        e.getCause());
+            }
+            throw new SQLException("Password hashing failed", e.getCause());
+        }
+    }
+
+    public record Stats(int active, int queued, int maxQueued, int queueSpace, long completed, long rejected,
+                        long avgHashMillis, int targetCost, long calibrationMillis) {
+    }
+}
@@ -0,0 +1,162 @@
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Moves a ticket to another flight or seat. */
+public class RebookingEngine {
+    private static final LongAdder attempts = new LongAdder();
+    private static final LongAdder rebooked = new LongAdder();
+    private static final LongAdder seatOnly = new LongAdder();
+    private static final LongAdder retries = new LongAdder();
+    private static final LongAdder deadlocks = new LongAdder();
+    private static final LongAdder exhausted = new LongAdder();
+    private static final LongAdder soldOut = new LongAdder();
+    private static final LongAdder seatConflicts = new LongAdder();
+    private static final LongAdder ticketMoved = new LongAdder();
+    private static final Transactions.Counters retrying = new Transactions.Counters(attempts, retries, exhausted);
+
+    private RebookingEngine() {
+    }
+
+    public static boolean rebook(int ticketId, int newFlightId, String newSeat) throws SQLException {
+        SeatMap target = SeatMapRegistry.getIfLoaded(newFlightId);
+        if (target != null && !target.exists(newSeat)) {
+            throw new SQLException("Seat " + newSeat + " does not exist on flight BA" + newFlightId);
+        }
+
+        return Transactions.retry(retrying, () -> tryRebook(ticketId, newFlightId, newSeat));
+    }
+
+    private static boolean tryRebook(int ticketId, int newFlightId, String newSeat) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            // Read before the transaction starts: a first read inside it would fix InnoDB's snapshot before the
+            // flight locks are taken, and the seat check below would miss tickets committed while waiting.
+            Ticket before = readTicket(conn, ticketId, false);
+            if (before.flightId() == newFlightId && before.seat().equals(newSeat)) return true;
+
+            conn.setAutoCommit(false);
+            try {
+                int first = Math.min(before.flightId(), newFlightId);
+                int second = Math.max(before.flightId(), newFlightId);
+                int targetSeats = -1;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT flight_id, available_seats FROM flights WHERE flight_id IN (?, ?) " +
+                                "ORDER BY flight_id FOR UPDATE")) {
+                    pstmt.setInt(1, first);
+                    pstmt.setInt(2, second);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            if (rs.getInt("flight_id") == newFlightId) targetSeats = rs.getInt("available_seats");
+                        }
+                    }
+                }
+                if (targetSeats < 0) throw new SQLException("Flight BA" + newFlightId + " not found");
+
+                // Re-read under the flight locks; another terminal may have moved the ticket meanwhile.
+                Ticket ticket = readTicket(conn, ticketId, true);
+                if (ticket.flightId() != before.flightId()) {
+                    ticketMoved.increment();
+                    throw new TicketMovedException(ticketId);
+                }
+
+                boolean sameFlight = ticket.flightId() == newFlightId;
+                if (!sameFlight && targetSeats <= 0) {
+                    soldOut.increment();
+                    throw new SQLException("No available seats on flight BA" + newFlightId);
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT 1 FROM tickets WHERE flight_id = ? AND seat_number = ? AND ticket_id <> ? " +
+                                "UNION ALL SELECT 1 FROM seat_holds WHERE flight_id = ? AND seat_number = ?")) {
+                    pstmt.setInt(1, newFlightId);
+                    pstmt.setString(2, newSeat);
+                    pstmt.setInt(3, ticketId);
+                    pstmt.setInt(4, newFlightId);
+                    pstmt.setString(5, newSeat);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (rs.next()) {
+                            seatConflicts.increment();
+                            SeatMapRegistry.seatTaken(newFlightId, newSeat);
+                            throw new SQLException("Seat " + newSeat + " is already taken on flight BA" + newFlightId);
+                        }
+                    }
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE tickets SET flight_id = ?, seat_number = ? WHERE ticket_id = ?")) {
+                    pstmt.setInt(1, newFlightId);
+                    pstmt.setString(2, newSeat);
+                    pstmt.setInt(3, ticketId);
+                    pstmt.executeUpdate();
+                }
+
+                if (!sameFlight) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "UPDATE flights SET available_seats = available_seats + ?, " +
+                                    "seat_version = seat_version + 1 WHERE flight_id = ?")) {
+                        pstmt.setInt(1, 1);
+                        pstmt.setInt(2, ticket.flightId());
+                        pstmt.addBatch();
+                        pstmt.setInt(1, -1);
+                        pstmt.setInt(2, newFlightId);
+                        pstmt.addBatch();
+                        pstmt.executeBatch();
+                    }
+                }
+
+                Map<Integer, DomainEvent.SeatCount> seats =
+                        FlightRepository.findSeatCounts(conn, List.of(ticket.flightId(), newFlightId));
+                DomainEvent event = DomainEvent.moved(ticketId, ticket.userId(), ticket.flightId(), ticket.seat(),
+                        seats.get(ticket.flightId()), newFlightId, newSeat, seats.get(newFlightId));
+                ChangeLog.append(conn, List.of(event));
+                conn.commit();
+
+                DomainEvents.publish(event);
+                if (sameFlight) {
+                    seatOnly.increment();
+                } else {
+                    rebooked.increment();
+                }
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                if (e instanceof SQLException sql && Transactions.isRetryable(sql)
+                        && !(e instanceof TicketMovedException)) {
+                    deadlocks.increment();
+                }
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static Ticket readTicket(Connection conn, int ticketId, boolean lock) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT user_id, flight_id, seat_number FROM tickets WHERE ticket_id = ?" + (lock ? " FOR UPDATE" : ""))) {
+            pstmt.setInt(1, ticketId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Ticket not found");
+                return new Ticket(rs.getInt("user_id"), rs.getInt("flight_id"), rs.getString("seat_number"));
+            }
+        }
+    }
+
+    public static Stats getStats() {
+        return new Stats(attempts.sum(), rebooked.sum(), seatOnly.sum(), retries.sum(), deadlocks.sum(),
+                exhausted.sum(), soldOut.sum(), seatConflicts.sum(), ticketMoved.sum());
+    }
+
+    public record Stats(long attempts, long rebooked, long seatOnly, long retries, long deadlocks,
+                        long exhausted, long soldOut, long seatConflicts, long ticketMoved) {
+    }
+
+    private record Ticket(int userId, int flightId, String seat) {
+    }
+
+    /** A rollback like a deadlock's, so the retry reads the ticket again. */
+    private static final class TicketMovedException extends SQLTransactionRollbackException {
+        private TicketMovedException(int ticketId) {
+            super("Ticket " + ticketId + " was changed by another request");
+        }
+    }
+}
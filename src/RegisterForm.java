@@ -1,8 +1,4 @@
 import javax.swing.*;
-import java.awt.*;
-import java.awt.event.*;
-import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
 import java.io.File;
 
 public class RegisterForm extends JFrame {
@@ -37,14 +33,18 @@ public class RegisterForm extends JFrame {
     private void selectImage() {
         JFileChooser fileChooser = new JFileChooser();
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try {
-                File file = fileChooser.getSelectedFile();
-                BufferedImage originalImage = ImageIO.read(file);
-                imageBytes = DBConnection.resizeImage(originalImage);
-                imageLabel.setIcon(new ImageIcon(originalImage.getScaledInstance(150, 150, Image.SCALE_SMOOTH)));
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, "Error loading image: " + ex.getMessage());
-            }
+            File file = fileChooser.getSelectedFile();
+            selectImageBtn.setEnabled(false);
+            AsyncData.load(this, () -> ImageIngestor.defaults().ingest(file),
+                    result -> {
+                        selectImageBtn.setEnabled(true);
+                        imageBytes = result.bytes();
+                        imageLabel.setIcon(new ImageIcon(result.preview()));
+                    },
+                    e -> {
+                        selectImageBtn.setEnabled(true);
+                        JOptionPane.showMessageDialog(this, "Error loading image: " + AsyncData.describe(e));
+                    });
         }
     }
 
@@ -65,22 +65,27 @@ public class RegisterForm extends JFrame {
             JOptionPane.showMessageDialog(this, "Password must be at least 8 characters");
             return;
         }
-        try {
-            if (DBConnection.register(
-                    emailField.getText(),
-                    firstNameField.getText(),
-                    lastNameField.getText(),
-                    new String(passwordField.getPassword()),
-                    imageBytes
-            )) {
-                JOptionPane.showMessageDialog(this, "Registration successful!");
-                new LoginForm().setVisible(true);
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Registration failed");
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage());
-        }
+        String email = emailField.getText();
+        String firstName = firstNameField.getText();
+        String lastName = lastNameField.getText();
+        String password = new String(passwordField.getPassword());
+        byte[] image = imageBytes;
+
+        registerBtn.setEnabled(false);
+        AsyncData.load(this, () -> DBConnection.register(email, firstName, lastName, password, image),
+                registered -> {
+                    registerBtn.setEnabled(true);
+                    if (registered) {
+                        JOptionPane.showMessageDialog(this, "Registration successful!");
+                        new LoginForm().setVisible(true);
+                        dispose();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Registration failed");
+                    }
+                },
+                e -> {
+                    registerBtn.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Error: " + AsyncData.describe(e));
+                });
     }
 }
\ No newline at end of file
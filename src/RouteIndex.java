@@ -0,0 +1,177 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/** City names and routes of the flight catalog, for filter type-ahead. Thread-safe. */
+public class RouteIndex {
+    private final TreeMap<String, Set<String>> byWord = new TreeMap<>();
+    private final Map<String, String> keyByCity = new HashMap<>();
+    private final TreeMap<String, Map<String, Integer>> routes = new TreeMap<>();
+    private final TreeMap<String, Integer> arrivals = new TreeMap<>();
+    private final Map<String, Integer> flightsByCity = new HashMap<>();
+
+    public synchronized void add(Flight flight) {
+        addCity(flight.departureCity());
+        addCity(flight.destinationCity());
+        routes.computeIfAbsent(flight.departureCity(), k -> new TreeMap<>())
+                .merge(flight.destinationCity(), 1, Integer::sum);
+        arrivals.merge(flight.destinationCity(), 1, Integer::sum);
+    }
+
+    public synchronized void remove(Flight flight) {
+        Map<String, Integer> served = routes.get(flight.departureCity());
+        if (served == null || !served.containsKey(flight.destinationCity())) return;
+        if (served.merge(flight.destinationCity(), -1, Integer::sum) == 0) {
+            served.remove(flight.destinationCity());
+            if (served.isEmpty()) routes.remove(flight.departureCity());
+        }
+        if (arrivals.merge(flight.destinationCity(), -1, Integer::sum) == 0) arrivals.remove(flight.destinationCity());
+        removeCity(flight.departureCity());
+        removeCity(flight.destinationCity());
+    }
+
+    /** Cities with departing flights whose name, or any word of it, starts with {@code text}. */
+    public synchronized List<String> suggestOrigins(String text, int limit) {
+        return suggest(text, routes.keySet(), limit);
+    }
+
+    /**
+     * Destinations whose name, or any word of it, starts with {@code text}; only those served from
+     * {@code origin} when it is given.
+     */
+    public synchronized List<String> suggestDestinations(String text, String origin, int limit) {
+        if (origin == null) return suggest(text, arrivals.keySet(), limit);
+        Map<String, Integer> served = routes.get(origin);
+        return served == null ? List.of() : suggest(text, served.keySet(), limit);
+    }
+
+    private List<String> suggest(String text, Set<String> candidates, int limit) {
+        String prefix = normalize(text);
+        List<String> result = new ArrayList<>();
+        if (prefix.isEmpty()) {
+            for (String city : candidates) {
+                if (result.size() == limit) break;
+                result.add(city);
+            }
+            return result;
+        }
+
+        // Whole-name matches first, then matches on a later word, each alphabetical.
+        Set<String> nameMatches = new TreeSet<>();
+        Set<String> wordMatches = new TreeSet<>();
+        for (Map.Entry<String, Set<String>> entry : byWord.tailMap(prefix).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) break;
+            for (String city : entry.getValue()) {
+                if (!candidates.contains(city)) continue;
+                if (keyByCity.get(city).startsWith(prefix)) nameMatches.add(city);
+                else wordMatches.add(city);
+            }
+        }
+        wordMatches.removeAll(nameMatches);
+        result.addAll(nameMatches);
+        result.addAll(wordMatches);
+
+        if (result.isEmpty() && prefix.length() >= 3) {
+            for (String city : candidates) {
+                if (isTypo(prefix, keyByCity.get(city))) result.add(city);
+            }
+            Collections.sort(result);
+        }
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /** Destinations with at least one flight from {@code origin}, alphabetical. */
+    public synchronized List<String> destinations(String origin) {
+        Map<String, Integer> served = routes.get(origin);
+        return served == null ? List.of() : new ArrayList<>(served.keySet());
+    }
+
+    /** The indexed city {@code text} names, ignoring case and accents, or {@code null}. */
+    public synchronized String resolve(String text) {
+        if (text == null) return null;
+        String key = normalize(text);
+        for (String city : byWord.getOrDefault(key, Set.of())) {
+            if (keyByCity.get(city).equals(key)) return city;
+        }
+        return null;
+    }
+
+    public synchronized int size() {
+        return keyByCity.size();
+    }
+
+    private void addCity(String city) {
+        if (flightsByCity.merge(city, 1, Integer::sum) > 1) return;
+        String key = normalize(city);
+        keyByCity.put(city, key);
+        for (String word : words(key)) byWord.computeIfAbsent(word, k -> new TreeSet<>()).add(city);
+    }
+
+    private void removeCity(String city) {
+        if (flightsByCity.merge(city, -1, Integer::sum) > 0) return;
+        flightsByCity.remove(city);
+        String key = keyByCity.remove(city);
+        for (String word : words(key)) {
+            Set<String> cities = byWord.get(word);
+            if (cities != null && cities.remove(city) && cities.isEmpty()) byWord.remove(word);
+        }
+    }
+
+    /** The whole key plus every suffix that starts a word, so prefixes of later words match too. */
+    private static List<String> words(String key) {
+        List<String> words = new ArrayList<>();
+        words.add(key);
+        for (int i = 1; i < key.length(); i++) {
+            if (!Character.isLetterOrDigit(key.charAt(i - 1)) && Character.isLetterOrDigit(key.charAt(i))) {
+                words.add(key.substring(i));
+            }
+        }
+        return words;
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        String stripped = Normalizer.normalize(text.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT);
+    }
+
+    /** Whether {@code prefix} is one insertion, deletion or substitution away from a prefix of {@code key}. */
+    private static boolean isTypo(String prefix, String key) {
+        for (int length = prefix.length() - 1; length <= prefix.length() + 1; length++) {
+            if (length <= key.length() && withinOneEdit(prefix, key.substring(0, length))) return true;
+        }
+        return false;
+    }
+
+    private static boolean withinOneEdit(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) return false;
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < a.length() && j < b.length()) {
+            if (a.charAt(i) == b.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (edited) return false;
+            edited = true;
+            if (a.length() > b.length()) {
+                i++;
+            } else if (a.length() < b.length()) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return !edited || (i == a.length() && j == b.length());
+    }
+}
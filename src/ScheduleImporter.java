@@ -0,0 +1,367 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/** Bulk loads a season schedule from CSV, resuming after the last committed chunk. */
+public class ScheduleImporter {
+    private static final Logger LOG = Logger.getLogger(ScheduleImporter.class.getName());
+
+    private static final String[] REQUIRED = {
+            "departure_city", "destination_city", "departure_time", "arrival_time", "price", "seats", "is_exclusive"
+    };
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]");
+    private static final int MAX_CITY_LENGTH = 100;
+    private static final int MAX_SEATS = 1_000;
+
+    private final int chunkSize;
+    private final int rowsPerStatement;
+
+    public ScheduleImporter(int chunkSize, int rowsPerStatement) {
+        if (chunkSize < 1 || rowsPerStatement < 1) throw new IllegalArgumentException("Sizes must be positive");
+        this.chunkSize = chunkSize;
+        this.rowsPerStatement = Math.min(rowsPerStatement, chunkSize);
+    }
+
+    public static ScheduleImporter defaults() {
+        return new ScheduleImporter(Integer.getInteger("flymanagement.import.chunkSize", 1_000),
+                Integer.getInteger("flymanagement.import.rowsPerStatement", 50));
+    }
+
+    public Report importFile(File file, Consumer<Report> progress) throws SQLException, IOException {
+        return importFile(file, file.getName() + ":" + file.length(), progress);
+    }
+
+    /**
+     * @param source checkpoint key; importing the same source again skips everything already committed
+     */
+    public Report importFile(File file, String source, Consumer<Report> progress) throws SQLException, IOException {
+        SchemaMigrator.migrate();
+        File rejectsFile = new File(file.getPath() + ".rejects.csv");
+        long started = System.nanoTime();
+
+        Checkpoint checkpoint = readCheckpoint(source);
+        try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            if (checkpoint.lineNo() == 0) Files.deleteIfExists(rejectsFile.toPath());
+
+            String header = in.readLine();
+            if (header == null) throw new IOException(file.getName() + " is empty");
+            Map<String, Integer> columns = columns(header);
+
+            int lineNo = 1;
+            int imported = checkpoint.imported();
+            int rejected = checkpoint.rejected();
+            int skipped = 0;
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            List<String> chunkRejects = new ArrayList<>();
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (lineNo <= checkpoint.lineNo()) {
+                    skipped++;
+                    continue;
+                }
+                if (line.isBlank()) continue;
+
+                try {
+                    chunk.add(parse(lineNo, line, columns));
+                } catch (IllegalArgumentException e) {
+                    chunkRejects.add(reject(lineNo, e.getMessage(), line));
+                }
+
+                if (chunk.size() + chunkRejects.size() >= chunkSize) {
+                    imported += commit(source, lineNo, imported, rejected, chunk, chunkRejects, rejectsFile);
+                    rejected += chunkRejects.size();
+                    chunk.clear();
+                    chunkRejects.clear();
+                    if (progress != null) progress.accept(report(lineNo, skipped, imported, rejected, started));
+                }
+            }
+
+            imported += commit(source, lineNo, imported, rejected, chunk, chunkRejects, rejectsFile);
+            rejected += chunkRejects.size();
+
+            Report report = report(lineNo, skipped, imported, rejected, started);
+            if (progress != null) progress.accept(report);
+            LOG.info("Imported " + file.getName() + ": " + report);
+            return report;
+        }
+    }
+
+    private int insert(Connection conn, List<Row> rows, List<String> rejects) throws SQLException {
+        if (rows.isEmpty()) return 0;
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            int full = rows.size() - rows.size() % rowsPerStatement;
+            if (full > 0) {
+                try (PreparedStatement pstmt = conn.prepareStatement(insertSql(rowsPerStatement))) {
+                    for (int i = 0; i < full; i += rowsPerStatement) {
+                        for (int j = 0; j < rowsPerStatement; j++) bind(pstmt, j, rows.get(i + j));
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+            }
+            if (full < rows.size()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(insertSql(rows.size() - full))) {
+                    for (int j = full; j < rows.size(); j++) bind(pstmt, j - full, rows.get(j));
+                    pstmt.executeUpdate();
+                }
+            }
+            return rows.size();
+        } catch (SQLException e) {
+            if (!isDataError(e)) throw e;
+            // Something the validator let through; redo the chunk row by row to find the offender.
+            conn.rollback(savepoint);
+            return insertOneByOne(conn, rows, rejects);
+        }
+    }
+
+    private int insertOneByOne(Connection conn, List<Row> rows, List<String> rejects) throws SQLException {
+        int inserted = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(insertSql(1))) {
+            for (Row row : rows) {
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    bind(pstmt, 0, row);
+                    pstmt.executeUpdate();
+                    inserted++;
+                } catch (SQLException e) {
+                    if (!isDataError(e)) throw e;
+                    conn.rollback(savepoint);
+                    rejects.add(reject(row.lineNo(), e.getMessage(), row.raw()));
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private static boolean isDataError(SQLException e) {
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            String state = next.getSQLState();
+            // Class 22: data exception, class 23: integrity constraint violation.
+            if (state != null && (state.startsWith("22") || state.startsWith("23"))) return true;
+        }
+        return false;
+    }
+
+    private static String insertSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO flights (" + FlightRepository.INSERT_COLUMNS + ") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) sql.append(", ");
+            sql.append("(?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        return sql.toString();
+    }
+
+    private static void bind(PreparedStatement pstmt, int index, Row row) throws SQLException {
+        int p = index * 8;
+        pstmt.setString(p + 1, row.departure());
+        pstmt.setString(p + 2, row.destination());
+        pstmt.setTimestamp(p + 3, Timestamp.valueOf(row.departureTime()));
+        pstmt.setTimestamp(p + 4, Timestamp.valueOf(row.arrivalTime()));
+        pstmt.setDouble(p + 5, row.price());
+        pstmt.setInt(p + 6, row.seats());
+        pstmt.setBoolean(p + 7, row.exclusive());
+        pstmt.setInt(p + 8, row.seats());
+    }
+
+    /**
+     * Inserts one chunk and moves the checkpoint to {@code lineNo} in one transaction; rows the database
+     * refuses are added to {@code rejects}. Returns the number of flights added.
+     */
+    private int commit(String source, int lineNo, int imported, int rejected, List<Row> rows,
+                       List<String> rejects, File rejectsFile) throws SQLException, IOException {
+        int added;
+        DomainEvent event = DomainEvent.flightsAdded(0);
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                added = insert(conn, rows, rejects);
+                saveCheckpoint(conn, source, lineNo, imported + added, rejected + rejects.size());
+                if (added > 0) ChangeLog.append(conn, List.of(event));
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        if (added > 0) DomainEvents.publish(event);
+        if (!rejects.isEmpty()) {
+            // Written after the commit: a crash in between loses reject lines, never duplicates flights.
+            try (BufferedWriter out = Files.newBufferedWriter(rejectsFile.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String reject : rejects) {
+                    out.write(reject);
+                    out.newLine();
+                }
+            }
+        }
+        return added;
+    }
+
+    private static Checkpoint readCheckpoint(String source) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT line_no, imported, rejected FROM import_checkpoints WHERE source = ?")) {
+            pstmt.setString(1, source);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next()
+                        ? new Checkpoint(rs.getInt(1), rs.getInt(2), rs.getInt(3))
+                        : new Checkpoint(0, 0, 0);
+            }
+        }
+    }
+
+    private static void saveCheckpoint(Connection conn, String source, int lineNo, int imported, int rejected)
+            throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE import_checkpoints SET line_no = ?, imported = ?, rejected = ?, " +
+                        "updated_at = CURRENT_TIMESTAMP WHERE source = ?")) {
+            pstmt.setInt(1, lineNo);
+            pstmt.setInt(2, imported);
+            pstmt.setInt(3, rejected);
+            pstmt.setString(4, source);
+            if (pstmt.executeUpdate() > 0) return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO import_checkpoints (source, line_no, imported, rejected) VALUES (?, ?, ?, ?)")) {
+            pstmt.setString(1, source);
+            pstmt.setInt(2, lineNo);
+            pstmt.setInt(3, imported);
+            pstmt.setInt(4, rejected);
+            pstmt.executeUpdate();
+        }
+    }
+
+    static Map<String, Integer> columns(String header) throws IOException {
+        List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        for (String required : REQUIRED) {
+            if (!columns.containsKey(required)) throw new IOException("Missing column: " + required);
+        }
+        return columns;
+    }
+
+    static Row parse(int lineNo, String line, Map<String, Integer> columns) {
+        List<String> fields = split(line);
+        String departure = field(fields, columns, "departure_city");
+        String destination = field(fields, columns, "destination_city");
+        if (departure.isEmpty() || destination.isEmpty()) throw new IllegalArgumentException("City is required");
+        if (departure.length() > MAX_CITY_LENGTH || destination.length() > MAX_CITY_LENGTH) {
+            throw new IllegalArgumentException("City name is too long");
+        }
+        if (departure.equalsIgnoreCase(destination)) {
+            throw new IllegalArgumentException("Departure and destination are the same");
+        }
+
+        LocalDateTime departureTime = time(field(fields, columns, "departure_time"));
+        LocalDateTime arrivalTime = time(field(fields, columns, "arrival_time"));
+        if (!arrivalTime.isAfter(departureTime)) throw new IllegalArgumentException("Arrival is not after departure");
+
+        double price;
+        int seats;
+        try {
+            price = Double.parseDouble(field(fields, columns, "price"));
+            seats = Integer.parseInt(field(fields, columns, "seats"));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+        }
+        if (!(price >= 0) || Double.isInfinite(price)) throw new IllegalArgumentException("Invalid price");
+        if (seats < 1 || seats > MAX_SEATS) throw new IllegalArgumentException("Seats must be 1-" + MAX_SEATS);
+
+        boolean exclusive = switch (field(fields, columns, "is_exclusive").toLowerCase(Locale.ROOT)) {
+            case "1", "true", "yes", "y" -> true;
+            case "0", "false", "no", "n", "" -> false;
+            default -> throw new IllegalArgumentException("Invalid is_exclusive value");
+        };
+        return new Row(lineNo, line, departure, destination, departureTime, arrivalTime, price, seats, exclusive);
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        int index = columns.get(name);
+        if (index >= fields.size()) throw new IllegalArgumentException("Missing " + name);
+        return fields.get(index).trim();
+    }
+
+    private static LocalDateTime time(String value) {
+        try {
+            return value.indexOf('T') > 0 ? LocalDateTime.parse(value) : LocalDateTime.parse(value, TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time: " + value);
+        }
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static String reject(int lineNo, String reason, String line) {
+        return lineNo + ",\"" + String.valueOf(reason).replace("\"", "\"\"") + "\"," + line;
+    }
+
+    private static Report report(int lineNo, int skipped, int imported, int rejected, long startedNanos) {
+        return new Report(lineNo, skipped, imported, rejected, (System.nanoTime() - startedNanos) / 1_000_000);
+    }
+
+    record Row(int lineNo, String raw, String departure, String destination, LocalDateTime departureTime,
+               LocalDateTime arrivalTime, double price, int seats, boolean exclusive) {
+    }
+
+    private record Checkpoint(int lineNo, int imported, int rejected) {
+    }
+
+    /** Totals include rows committed by earlier, interrupted runs of the same source. */
+    public record Report(int lastLine, int skippedLines, int imported, int rejected, long elapsedMillis) {
+        public double rowsPerSecond() {
+            int processed = lastLine - 1 - skippedLines;
+            return elapsedMillis == 0 ? processed : processed * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("line %d, %d imported, %d rejected, %.0f rows/s", lastLine, imported, rejected,
+                    rowsPerSecond());
+        }
+    }
+}
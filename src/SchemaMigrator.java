@@ -0,0 +1,160 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Applies the versioned scripts under {@code /db/migration} in order. */
+public class SchemaMigrator {
+    private static final Logger LOG = Logger.getLogger(SchemaMigrator.class.getName());
+    private static final String LOCK_NAME = "flymanagement.schema";
+    private static final int LOCK_TIMEOUT_SECONDS = Integer.getInteger("flymanagement.schema.lockTimeoutSec", 300);
+
+    static final String[] MIGRATIONS = {
+            "V1__flight_search_indexes.sql",
+            "V2__ticket_indexes.sql",
+            "V3__import_checkpoints.sql",
+            "V4__flight_capacity.sql",
+            "V5__change_log.sql",
+            "V6__ticket_price_paid.sql",
+            "V7__seat_holds.sql",
+            "V8__flight_requests.sql",
+            "V9__seat_versions.sql",
+    };
+
+    private SchemaMigrator() {
+    }
+
+    public static synchronized int migrate() throws SQLException {
+        int applied = 0;
+        try (Connection conn = DBConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                        "version INT PRIMARY KEY, " +
+                        "description VARCHAR(200) NOT NULL, " +
+                        "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            }
+
+            boolean locked = lock(conn);
+            try {
+                // Read only once the lock is held; another terminal may have just applied the same scripts.
+                Set<Integer> done = appliedVersions(conn);
+                for (String script : MIGRATIONS) {
+                    int version = Integer.parseInt(script.substring(1, script.indexOf("__")));
+                    if (done.contains(version)) continue;
+
+                    apply(conn, script);
+                    record(conn, version, script);
+                    applied++;
+                    LOG.info("Applied schema migration " + script);
+                }
+            } finally {
+                if (locked) unlock(conn);
+            }
+        }
+        return applied;
+    }
+
+    public static int currentVersion() throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            return appliedVersions(conn).stream().mapToInt(Integer::intValue).max().orElse(0);
+        }
+    }
+
+    private static Set<Integer> appliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) versions.add(rs.getInt(1));
+        }
+        return versions;
+    }
+
+    /**
+     * Waits for the migration lock; returns {@code false} on databases without advisory locks (H2 in tests
+     * and benchmarks), where {@code migrate} being synchronized is enough.
+     */
+    private static boolean lock(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName();
+        if (!product.startsWith("MySQL") && !product.startsWith("MariaDB")) return false;
+
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == 1) return true;
+            }
+        }
+        throw new SQLException("Timed out after " + LOCK_TIMEOUT_SECONDS + " s waiting for another terminal's " +
+                "schema migration");
+    }
+
+    private static void unlock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery().close();
+        } catch (SQLException e) {
+            // The server drops the lock with the session, so at worst the next terminal waits for that.
+            LOG.log(Level.WARNING, "Releasing the schema migration lock failed", e);
+        }
+    }
+
+    private static void record(Connection conn, int version, String script) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+            pstmt.setInt(1, version);
+            pstmt.setString(2, script);
+            pstmt.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // Claimed meanwhile by an older client that does not take the lock; the scripts are safe to rerun.
+        }
+    }
+
+    private static void apply(Connection conn, String script) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements(script)) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    // MySQL 1060/1061: column or index already exists, left by an earlier run that failed part-way.
+                    if (e.getErrorCode() != 1060 && e.getErrorCode() != 1061) throw e;
+                }
+            }
+        }
+    }
+
+    static List<String> statements(String script) throws SQLException {
+        String text;
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream("/db/migration/" + script)) {
+            if (in == null) throw new SQLException("Migration script not found: " + script);
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Could not read migration " + script, e);
+        }
+
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) statements.add(current.toString().trim());
+        return statements;
+    }
+}
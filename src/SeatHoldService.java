@@ -0,0 +1,341 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Short-lived holds on the seat a customer is choosing. */
+public class SeatHoldService {
+    private static final Logger LOG = Logger.getLogger(SeatHoldService.class.getName());
+    private static final long TTL_MILLIS = Long.getLong("flymanagement.holds.ttlMs", 5 * 60_000L);
+    private static final long ORPHAN_GRACE_MILLIS = Long.getLong("flymanagement.holds.orphanGraceMs", 60_000L);
+    private static final long SWEEP_INTERVAL_MILLIS = Long.getLong("flymanagement.holds.sweepMs", 30_000L);
+    private static final int RELEASE_BATCH = 500;
+
+    private static final ConcurrentHashMap<Long, Hold> HOLDS = new ConcurrentHashMap<>();
+    private static final DelayQueue<Hold> EXPIRY = new DelayQueue<>();
+
+    private static Thread expiryThread;
+
+    private SeatHoldService() {
+    }
+
+    public record Hold(long holdId, int userId, int flightId, String seat, double fare, long expiresAt)
+            implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAt, ((Hold) other).expiresAt);
+        }
+    }
+
+    /**
+     * Holds {@code seat}, or the first free seat when it is {@code null}, for {@code flymanagement.holds.ttlMs}
+     * at today's fare. Fails like a booking does when the flight is sold out or the seat is taken or held.
+     */
+    public static Hold place(int userId, int flightId, String seat) throws SQLException {
+        startExpiry();
+        Placed placed = Transactions.retry(() -> tryPlace(userId, flightId, seat));
+        HOLDS.put(placed.hold().holdId(), placed.hold());
+        EXPIRY.add(placed.hold());
+        DomainEvents.publish(placed.event());
+        return placed.hold();
+    }
+
+    private static Placed tryPlace(int userId, int flightId, String seat) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE flights SET available_seats = available_seats - 1, seat_version = seat_version + 1 " +
+                                "WHERE flight_id = ? AND available_seats > 0")) {
+                    pstmt.setInt(1, flightId);
+                    if (pstmt.executeUpdate() == 0) throw new SQLException("No available seats");
+                }
+                if (seat == null) {
+                    seat = firstFreeSeat(conn, flightId);
+                } else if (SeatReservationEngine.isSeatTaken(conn, flightId, seat)) {
+                    SeatMapRegistry.seatTaken(flightId, seat);
+                    throw new SQLException("Seat " + seat + " is already taken on this flight");
+                }
+
+                double fare = SeatReservationEngine.fare(conn, flightId);
+                long expiresAt = System.currentTimeMillis() + TTL_MILLIS;
+                long holdId;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO seat_holds (flight_id, seat_number, user_id, fare, expires_at) VALUES (?, ?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, flightId);
+                    pstmt.setString(2, seat);
+                    pstmt.setInt(3, userId);
+                    pstmt.setDouble(4, fare);
+                    pstmt.setTimestamp(5, new Timestamp(expiresAt));
+                    pstmt.executeUpdate();
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        if (!keys.next()) throw new SQLException("No hold id generated");
+                        holdId = keys.getLong(1);
+                    }
+                } catch (SQLIntegrityConstraintViolationException e) {
+                    throw new SQLException("Seat " + seat + " is already taken on this flight", e);
+                }
+
+                DomainEvent held = DomainEvent.held(userId, flightId, seat,
+                        FlightRepository.findSeatCount(conn, flightId));
+                ChangeLog.append(conn, List.of(held));
+                conn.commit();
+                return new Placed(new Hold(holdId, userId, flightId, seat, fare, expiresAt), held);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /** Called after the inventory decrement, which holds the flight row lock, so the choice cannot race. */
+    private static String firstFreeSeat(Connection conn, int flightId) throws SQLException {
+        FlightRepository.Seating seating = FlightRepository.findSeating(conn, flightId);
+        if (seating == null) throw new SQLException("Flight BA" + flightId + " not found");
+        // The seat being held is already out of available_seats but not yet in seat_holds.
+        SeatMap map = SeatMapRegistry.build(flightId, seating, 1);
+        List<String> free = map.freeSeats();
+        if (free.isEmpty()) throw new SQLException("No available seats");
+        return free.get(0);
+    }
+
+    /**
+     * Books the held seat, or {@code seat} instead if the customer picked another one, at the held fare.
+     * The seat was taken out of the inventory when the hold was placed, so only the seat itself is checked.
+     * If the hold has already expired this falls back to an ordinary booking. Returns the ticket id.
+     */
+    public static int book(Hold hold, String seat, Double quotedFare) throws SQLException {
+        if (quotedFare != null && Math.abs(quotedFare - hold.fare()) >= 0.005) {
+            throw new SQLException(String.format("The held fare for this flight is €%.2f", hold.fare()));
+        }
+        List<DomainEvent> events = Transactions.retry(() -> tryBook(hold, seat));
+        HOLDS.remove(hold.holdId());
+        if (events == null) return SeatReservationEngine.reserve(hold.userId(), hold.flightId(), seat, quotedFare);
+        DomainEvents.publish(events);
+        return events.get(1).ticketId();
+    }
+
+    /** Returns the hold's release and the booking, or {@code null} when the hold no longer exists. */
+    private static List<DomainEvent> tryBook(Hold hold, String seat) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Flight row first, then the hold, in the same order as expiry and cancellation take them.
+                // The lock also protects another seat, as in an ordinary booking.
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT flight_id FROM flights WHERE flight_id = ? FOR UPDATE")) {
+                    pstmt.setInt(1, hold.flightId());
+                    pstmt.executeQuery().close();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM seat_holds WHERE hold_id = ?")) {
+                    pstmt.setLong(1, hold.holdId());
+                    if (pstmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        return null;
+                    }
+                }
+
+                if (!seat.equals(hold.seat())) {
+                    if (SeatReservationEngine.isSeatTaken(conn, hold.flightId(), seat)) {
+                        SeatMapRegistry.seatTaken(hold.flightId(), seat);
+                        throw new SQLException("Seat " + seat + " is already taken on this flight");
+                    }
+                }
+
+                int ticketId;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO tickets (user_id, flight_id, seat_number, price_paid) VALUES (?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, hold.userId());
+                    pstmt.setInt(2, hold.flightId());
+                    pstmt.setString(3, seat);
+                    pstmt.setDouble(4, hold.fare());
+                    pstmt.executeUpdate();
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        ticketId = keys.next() ? keys.getInt(1) : 0;
+                    }
+                }
+
+                // The seat count is unchanged: the hold already took the seat out of available_seats.
+                DomainEvent.SeatCount seats = FlightRepository.findSeatCount(conn, hold.flightId());
+                List<DomainEvent> events = List.of(
+                        DomainEvent.released(hold.userId(), hold.flightId(), hold.seat(), seats),
+                        DomainEvent.booked(ticketId, hold.userId(), hold.flightId(), seat, seats));
+                ChangeLog.append(conn, events);
+                conn.commit();
+                return events;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /** Gives the seat back, e.g. when the customer closes the dialog. */
+    public static void release(Hold hold) throws SQLException {
+        if (HOLDS.remove(hold.holdId()) == null) return;
+        release(List.of(hold.holdId()));
+    }
+
+    public static int activeHolds() {
+        return HOLDS.size();
+    }
+
+    /** Starts the expiry thread; placing a hold does this too. */
+    public static synchronized void startExpiry() {
+        if (expiryThread != null) return;
+        expiryThread = new Thread(SeatHoldService::expireLoop, "seat-hold-expiry");
+        expiryThread.setDaemon(true);
+        expiryThread.start();
+    }
+
+    private static void expireLoop() {
+        long nextSweep = System.currentTimeMillis() + SWEEP_INTERVAL_MILLIS;
+        while (true) {
+            try {
+                Hold first = EXPIRY.poll(Math.max(1, nextSweep - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    List<Hold> expired = new ArrayList<>();
+                    expired.add(first);
+                    EXPIRY.drainTo(expired);
+                    List<Long> ids = new ArrayList<>(expired.size());
+                    // Holds already booked or released are still queued; the map says which are live.
+                    for (Hold hold : expired) {
+                        if (HOLDS.remove(hold.holdId()) != null) ids.add(hold.holdId());
+                    }
+                    for (int i = 0; i < ids.size(); i += RELEASE_BATCH) {
+                        release(ids.subList(i, Math.min(ids.size(), i + RELEASE_BATCH)));
+                    }
+                }
+                if (System.currentTimeMillis() >= nextSweep) {
+                    int swept = releaseWhere("expires_at < ?",
+                            List.of(new Timestamp(System.currentTimeMillis() - ORPHAN_GRACE_MILLIS)));
+                    if (swept > 0) LOG.info("Released " + swept + " abandoned seat hold(s)");
+                    nextSweep = System.currentTimeMillis() + SWEEP_INTERVAL_MILLIS;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (SQLException | RuntimeException e) {
+                // The rows stay in the table and the next sweep picks them up.
+                LOG.log(Level.WARNING, "Releasing expired seat holds failed", e);
+            }
+        }
+    }
+
+    private static int release(List<Long> holdIds) throws SQLException {
+        return releaseWhere("hold_id IN (" + Transactions.placeholders(holdIds.size()) + ")",
+                new ArrayList<>(holdIds));
+    }
+
+    private static int releaseWhere(String predicate, List<Object> params) throws SQLException {
+        return Transactions.retry(() -> tryRelease(predicate, params));
+    }
+
+    /** Deletes the matching holds and returns their seats, one increment per flight, as cancellations do. */
+    private static int tryRelease(String predicate, List<Object> params) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                TreeSet<Integer> flightIds = new TreeSet<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT DISTINCT flight_id FROM seat_holds WHERE " + predicate)) {
+                    Transactions.bind(pstmt, params, 1);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) flightIds.add(rs.getInt(1));
+                    }
+                }
+                if (flightIds.isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                List<HeldSeat> holds = new ArrayList<>();
+                while (true) {
+                    // Flights first, in id order, like bookings and cancellations.
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "SELECT flight_id FROM flights WHERE flight_id IN (" +
+                                    Transactions.placeholders(flightIds.size()) + ") " +
+                                    "ORDER BY flight_id FOR UPDATE")) {
+                        Transactions.bind(pstmt, new ArrayList<>(flightIds), 1);
+                        pstmt.executeQuery().close();
+                    }
+
+                    TreeSet<Integer> found = new TreeSet<>();
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "SELECT hold_id, user_id, flight_id, seat_number FROM seat_holds WHERE " + predicate +
+                                    " FOR UPDATE")) {
+                        Transactions.bind(pstmt, params, 1);
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            while (rs.next()) {
+                                holds.add(new HeldSeat(rs.getLong("hold_id"), rs.getInt("user_id"),
+                                        rs.getInt("flight_id"), rs.getString("seat_number")));
+                                found.add(rs.getInt("flight_id"));
+                            }
+                        }
+                    }
+                    if (flightIds.containsAll(found)) break;
+
+                    // A hold on another flight started matching after the flights were read; lock it in order too.
+                    conn.rollback();
+                    holds.clear();
+                    flightIds.addAll(found);
+                }
+
+                Map<Integer, Integer> released = new TreeMap<>();
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM seat_holds WHERE hold_id = ?")) {
+                    for (HeldSeat held : holds) {
+                        pstmt.setLong(1, held.holdId());
+                        pstmt.addBatch();
+                        released.merge(held.flightId(), 1, Integer::sum);
+                    }
+                    pstmt.executeBatch();
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE flights SET available_seats = available_seats + ?, seat_version = seat_version + 1 " +
+                                "WHERE flight_id = ?")) {
+                    for (Map.Entry<Integer, Integer> entry : released.entrySet()) {
+                        pstmt.setInt(1, entry.getValue());
+                        pstmt.setInt(2, entry.getKey());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+
+                Map<Integer, DomainEvent.SeatCount> seats = FlightRepository.findSeatCounts(conn, released.keySet());
+                List<DomainEvent> events = new ArrayList<>(holds.size());
+                for (HeldSeat held : holds) {
+                    events.add(DomainEvent.released(held.userId(), held.flightId(), held.seat(),
+                            seats.get(held.flightId())));
+                }
+                ChangeLog.append(conn, events);
+                conn.commit();
+                DomainEvents.publish(events);
+                return events.size();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private record Placed(Hold hold, DomainEvent event) {
+    }
+
+    private record HeldSeat(long holdId, int userId, int flightId, String seat) {
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.ArrayList;
+import java.util.List;
+
+public class SeatMap {
+    public static final String ECONOMY_COLUMNS = "ABCDEF";
+    public static final String BUSINESS_COLUMNS = "ABCD";
+
+    private final String columns;
+    private final int rows;
+    private final int capacity;
+    private final long[] occupied;
+    private int occupiedCount;
+
+    public SeatMap(String columns, int capacity) {
+        this.columns = columns;
+        this.capacity = Math.max(0, capacity);
+        this.rows = (this.capacity + columns.length() - 1) / columns.length();
+        this.occupied = new long[(this.capacity + 63) / 64];
+    }
+
+    public static SeatMap forFlight(boolean exclusive, int capacity) {
+        return new SeatMap(exclusive ? BUSINESS_COLUMNS : ECONOMY_COLUMNS, capacity);
+    }
+
+    public int indexOf(String seat) {
+        if (seat == null || seat.length() < 2) return -1;
+        int column = columns.indexOf(Character.toUpperCase(seat.charAt(0)));
+        if (column < 0) return -1;
+        int row;
+        try {
+            row = Integer.parseInt(seat.substring(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (row < 1 || row > rows) return -1;
+        int index = (row - 1) * columns.length() + column;
+        return index < capacity ? index : -1;
+    }
+
+    public String seatAt(int index) {
+        return String.valueOf(columns.charAt(index % columns.length())) + (index / columns.length() + 1);
+    }
+
+    public boolean exists(String seat) {
+        return indexOf(seat) >= 0;
+    }
+
+    public synchronized boolean isFree(String seat) {
+        int index = indexOf(seat);
+        return index >= 0 && !get(index);
+    }
+
+    public synchronized boolean occupy(String seat) {
+        int index = indexOf(seat);
+        if (index < 0 || get(index)) return false;
+        occupied[index >>> 6] |= 1L << index;
+        occupiedCount++;
+        return true;
+    }
+
+    public synchronized void release(String seat) {
+        int index = indexOf(seat);
+        if (index < 0 || !get(index)) return;
+        occupied[index >>> 6] &= ~(1L << index);
+        occupiedCount--;
+    }
+
+    public synchronized int freeCount() {
+        return capacity - occupiedCount;
+    }
+
+    public synchronized List<String> freeSeats() {
+        List<String> free = new ArrayList<>(capacity - occupiedCount);
+        for (int i = nextFree(0); i >= 0; i = nextFree(i + 1)) {
+            free.add(seatAt(i));
+        }
+        return free;
+    }
+
+    public synchronized List<String> nextFreeAdjacent(int count) {
+        int width = columns.length();
+        if (count < 1 || count > width) return List.of();
+
+        int runStart = -1;
+        int previous = -2;
+        for (int i = nextFree(0); i >= 0; i = nextFree(i + 1)) {
+            if (i != previous + 1 || i % width == 0) runStart = i;
+            previous = i;
+            if (i - runStart + 1 == count) {
+                List<String> seats = new ArrayList<>(count);
+                for (int j = runStart; j <= i; j++) seats.add(seatAt(j));
+                return seats;
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * {@code count} free seats, in blocks of neighbours within a row where possible: full rows first, then
+     * the largest block that still fits. Nothing is occupied; empty if there are not enough free seats.
+     */
+    public synchronized List<String> nextFreeGroup(int count) {
+        if (count < 1 || count > capacity - occupiedCount) return List.of();
+        long[] saved = occupied.clone();
+        int savedCount = occupiedCount;
+        try {
+            List<String> seats = new ArrayList<>(count);
+            while (seats.size() < count) {
+                List<String> block = List.of();
+                for (int size = Math.min(count - seats.size(), columns.length()); block.isEmpty(); size--) {
+                    block = nextFreeAdjacent(size);
+                }
+                for (String seat : block) occupy(seat);
+                seats.addAll(block);
+            }
+            return seats;
+        } finally {
+            System.arraycopy(saved, 0, occupied, 0, saved.length);
+            occupiedCount = savedCount;
+        }
+    }
+
+    public String getColumns() { return columns; }
+    public int getRows() { return rows; }
+    public int getCapacity() { return capacity; }
+
+    private boolean get(int index) {
+        return (occupied[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private int nextFree(int from) {
+        for (int word = from >>> 6; word < occupied.length; word++) {
+            long free = ~occupied[word];
+            if (word == from >>> 6) free &= -1L << from;
+            if (free != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(free);
+                return index < capacity ? index : -1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,77 @@
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+public class SeatMapRegistry {
+    private static final Logger LOG = Logger.getLogger(SeatMapRegistry.class.getName());
+    private static final long MAX_AGE_MILLIS = Long.getLong("flymanagement.seatmap.maxAgeMs", 60_000L);
+
+    private static final ConcurrentHashMap<Integer, Entry> MAPS = new ConcurrentHashMap<>();
+
+    private SeatMapRegistry() {
+    }
+
+    public static SeatMap get(int flightId) throws SQLException {
+        Entry entry = MAPS.get(flightId);
+        if (entry != null && System.currentTimeMillis() - entry.loadedAt < MAX_AGE_MILLIS) {
+            return entry.map;
+        }
+        SeatMap map = load(flightId);
+        MAPS.put(flightId, new Entry(map, System.currentTimeMillis()));
+        return map;
+    }
+
+    public static SeatMap getIfLoaded(int flightId) {
+        Entry entry = MAPS.get(flightId);
+        return entry == null ? null : entry.map;
+    }
+
+    public static void seatTaken(int flightId, String seat) {
+        SeatMap map = getIfLoaded(flightId);
+        if (map != null) map.occupy(seat);
+    }
+
+    public static void seatReleased(int flightId, String seat) {
+        SeatMap map = getIfLoaded(flightId);
+        if (map != null) map.release(seat);
+    }
+
+    public static void invalidate(int flightId) {
+        MAPS.remove(flightId);
+    }
+
+    public static void invalidateAll() {
+        MAPS.clear();
+    }
+
+    private static SeatMap load(int flightId) throws SQLException {
+        FlightRepository.Seating seating = FlightRepository.findSeating(flightId);
+        if (seating == null) throw new SQLException("Flight BA" + flightId + " not found");
+
+        return build(flightId, seating, 0);
+    }
+
+    /**
+     * The flight's layout with its taken seats occupied, sized from {@code total_seats}. Flights without one
+     * fall back to the seats left plus those taken, counting {@code pending} seats already out of
+     * {@code available_seats} but not yet ticketed or held.
+     */
+    static SeatMap build(int flightId, FlightRepository.Seating seating, int pending) {
+        List<String> taken = seating.takenSeats();
+        int capacity = seating.totalSeats() > 0 ? seating.totalSeats()
+                : seating.availableSeats() + pending + taken.size();
+        SeatMap map = SeatMap.forFlight(seating.exclusive(), capacity);
+        for (String seat : taken) {
+            if (!map.exists(seat)) {
+                LOG.warning("Seat " + seat + " on flight BA" + flightId + " is outside its "
+                        + capacity + "-seat layout");
+            }
+            map.occupy(seat);
+        }
+        return map;
+    }
+
+    private record Entry(SeatMap map, long loadedAt) {
+    }
+}
@@ -0,0 +1,152 @@
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SeatReservationEngine {
+    private static final ConcurrentHashMap<Integer, Contention> CONTENTION = new ConcurrentHashMap<>();
+
+    private SeatReservationEngine() {
+    }
+
+    public static int reserve(int userId, int flightId, String seat) throws SQLException {
+        return reserve(userId, flightId, seat, null);
+    }
+
+    /**
+     * Books the seat at today's fare. With a {@code quotedFare} the booking is refused if the fare is no
+     * longer the one the customer was shown, so the price quoted is always the price charged.
+     */
+    public static int reserve(int userId, int flightId, String seat, Double quotedFare) throws SQLException {
+        Contention counters = CONTENTION.computeIfAbsent(flightId, id -> new Contention());
+        DomainEvent booked = Transactions.retry(counters.retrying,
+                () -> tryReserve(userId, flightId, seat, quotedFare, counters));
+        counters.booked.increment();
+        DomainEvents.publish(booked);
+        return booked.ticketId();
+    }
+
+    private static DomainEvent tryReserve(int userId, int flightId, String seat, Double quotedFare,
+                                          Contention counters) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE flights SET available_seats = available_seats - 1, seat_version = seat_version + 1 " +
+                                "WHERE flight_id = ? AND available_seats > 0")) {
+                    pstmt.setInt(1, flightId);
+                    if (pstmt.executeUpdate() == 0) {
+                        counters.soldOut.increment();
+                        throw new SQLException("No available seats");
+                    }
+                }
+
+                // The decrement above holds the flight row lock, so this check cannot race another booking.
+                if (isSeatTaken(conn, flightId, seat)) {
+                    counters.seatConflicts.increment();
+                    SeatMapRegistry.seatTaken(flightId, seat);
+                    throw new SQLException("Seat " + seat + " is already taken on this flight");
+                }
+
+                double fare = fare(conn, flightId);
+                if (quotedFare != null && Math.abs(fare - quotedFare) >= 0.005) {
+                    // The quote came from a catalog that has not seen the latest bookings yet.
+                    FlightCatalog.shared().markStale();
+                    throw new SQLException(String.format("The fare for this flight is now €%.2f", fare));
+                }
+
+                int ticketId;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO tickets (user_id, flight_id, seat_number, price_paid) VALUES (?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, userId);
+                    pstmt.setInt(2, flightId);
+                    pstmt.setString(3, seat);
+                    pstmt.setDouble(4, fare);
+                    pstmt.executeUpdate();
+                    try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                        ticketId = keys.next() ? keys.getInt(1) : 0;
+                    }
+                }
+
+                DomainEvent booked = DomainEvent.booked(ticketId, userId, flightId, seat,
+                        FlightRepository.findSeatCount(conn, flightId));
+                ChangeLog.append(conn, List.of(booked));
+                conn.commit();
+                return booked;
+            } catch (SQLException e) {
+                if (Transactions.isRetryable(e)) counters.deadlocks.increment();
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /** Whether the seat is ticketed or on hold. */
+    static boolean isSeatTaken(Connection conn, int flightId, String seat) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT 1 FROM tickets WHERE flight_id = ? AND seat_number = ? " +
+                        "UNION ALL SELECT 1 FROM seat_holds WHERE flight_id = ? AND seat_number = ?")) {
+            pstmt.setInt(1, flightId);
+            pstmt.setString(2, seat);
+            pstmt.setInt(3, flightId);
+            pstmt.setString(4, seat);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /** Today's fare for the seat just taken, i.e. quoted on the seat count before the decrement. */
+    static double fare(Connection conn, int flightId) throws SQLException {
+        return fare(conn, flightId, 1);
+    }
+
+    /** As {@link #fare(Connection, int)} after a decrement of {@code taken} seats. */
+    static double fare(Connection conn, int flightId, int taken) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT price, available_seats, total_seats, departure_time, is_exclusive FROM flights WHERE flight_id = ?")) {
+            pstmt.setInt(1, flightId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Flight BA" + flightId + " not found");
+                return FareEngine.quote(rs.getDouble("price"), rs.getInt("available_seats") + taken, rs.getInt("total_seats"),
+                        rs.getTimestamp("departure_time").toLocalDateTime(), rs.getBoolean("is_exclusive"),
+                        LocalDate.now());
+            }
+        }
+    }
+
+    public static Map<Integer, Stats> getContentionStats() {
+        Map<Integer, Stats> stats = new TreeMap<>();
+        CONTENTION.forEach((flightId, c) -> stats.put(flightId, c.snapshot()));
+        return stats;
+    }
+
+    public static Stats getContentionStats(int flightId) {
+        Contention c = CONTENTION.get(flightId);
+        return c == null ? new Stats(0, 0, 0, 0, 0, 0, 0) : c.snapshot();
+    }
+
+    public record Stats(long attempts, long booked, long retries, long deadlocks,
+                        long exhausted, long soldOut, long seatConflicts) {
+    }
+
+    private static final class Contention {
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder booked = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder deadlocks = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+        private final LongAdder soldOut = new LongAdder();
+        private final LongAdder seatConflicts = new LongAdder();
+        private final Transactions.Counters retrying = new Transactions.Counters(attempts, retries, exhausted);
+
+        private Stats snapshot() {
+            return new Stats(attempts.sum(), booked.sum(), retries.sum(), deadlocks.sum(),
+                    exhausted.sum(), soldOut.sum(), seatConflicts.sum());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+
+/** Pages the bookings cached in a {@link UserSession}. */
+public class SessionBookingSource implements PagedTableModel.PageSource<Booking> {
+    private static final List<Comparator<Booking>> SORT_KEYS = List.of(
+            Comparator.comparingInt(Booking::ticketId),
+            Comparator.comparingInt(Booking::flightId),
+            Comparator.comparing(Booking::departureCity),
+            Comparator.comparing(Booking::destinationCity),
+            Comparator.comparing(Booking::departureTime),
+            Comparator.comparing(Booking::seatNumber),
+            Comparator.comparing(Booking::exclusive)
+    );
+
+    private final UserSession session;
+
+    public SessionBookingSource(UserSession session) {
+        this.session = session;
+    }
+
+    @Override
+    public int count() throws SQLException {
+        return session.bookings().size();
+    }
+
+    @Override
+    public List<Booking> fetch(int offset, Booking after, int limit, int sortColumn, boolean ascending)
+            throws SQLException {
+        Comparator<Booking> order = SORT_KEYS.get(sortColumn);
+        if (!ascending) order = order.reversed();
+        order = order.thenComparingInt(Booking::ticketId);
+
+        List<Booking> sorted = session.bookings();
+        sorted.sort(order);
+        if (offset >= sorted.size()) return List.of();
+        return List.copyOf(sorted.subList(offset, Math.min(sorted.size(), offset + limit)));
+    }
+}
@@ -0,0 +1,96 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/** Execution time per SQL text. */
+public class StatementStats {
+    private static final Logger LOG = Logger.getLogger(StatementStats.class.getName());
+    private static final int MAX_DISTINCT = 500;
+    private static final long SLOW_NANOS = Long.getLong("flymanagement.db.slowStatementMs", 500L) * 1_000_000;
+
+    private static final ConcurrentHashMap<String, Timing> TIMINGS = new ConcurrentHashMap<>();
+
+    private StatementStats() {
+    }
+
+    static Statement timed(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (!name.startsWith("execute")) return invoke(statement, method, args);
+
+                    String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                    long start = System.nanoTime();
+                    boolean failed = true;
+                    try {
+                        Object result = invoke(statement, method, args);
+                        failed = false;
+                        return result;
+                    } finally {
+                        record(sql == null ? "(batch)" : sql, System.nanoTime() - start, failed);
+                    }
+                });
+    }
+
+    private static Object invoke(Statement statement, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    static void record(String sql, long nanos, boolean failed) {
+        // Generated IN lists and multi-row inserts produce many shapes; do not let them grow the map forever.
+        String key = TIMINGS.size() < MAX_DISTINCT || TIMINGS.containsKey(sql) ? sql : "(other)";
+        Timing timing = TIMINGS.computeIfAbsent(key, s -> new Timing());
+        timing.count.increment();
+        timing.totalNanos.add(nanos);
+        timing.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (failed) timing.errors.increment();
+        Metrics.Timer all = Metrics.timer("db.statement");
+        all.record(nanos);
+        if (failed) all.error();
+        if (nanos > SLOW_NANOS) LOG.warning("Slow statement (" + nanos / 1_000_000 + " ms): " + sql);
+    }
+
+    /** Sorted by total time spent, most expensive first. */
+    public static Map<String, Stats> snapshot() {
+        Map<String, Stats> byTotal = new LinkedHashMap<>();
+        TIMINGS.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().snapshot()))
+                .sorted(Comparator.comparingLong((Map.Entry<String, Stats> e) -> e.getValue().totalMicros()).reversed())
+                .forEach(e -> byTotal.put(e.getKey(), e.getValue()));
+        return byTotal;
+    }
+
+    public static void reset() {
+        TIMINGS.clear();
+    }
+
+    public record Stats(long count, long errors, long totalMicros, long avgMicros, long maxMicros) {
+    }
+
+    private static final class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private Stats snapshot() {
+            long n = count.sum();
+            long total = totalNanos.sum();
+            return new Stats(n, errors.sum(), total / 1_000, n == 0 ? 0 : total / n / 1_000, maxNanos.get() / 1_000);
+        }
+    }
+}
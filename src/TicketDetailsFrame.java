@@ -1,7 +1,5 @@
 import javax.swing.*;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
 
 public class TicketDetailsFrame extends JFrame {
     private JLabel flightNumberLabel;
@@ -15,31 +13,41 @@ public class TicketDetailsFrame extends JFrame {
     private JButton closeButton;
     private JPanel mainPanel;
 
-    public TicketDetailsFrame(User user, int flightId, String seat) {
+    public TicketDetailsFrame(User user, int ticketId, int flightId, String seat) {
         setContentPane(mainPanel);
         setTitle("Ticket Confirmation");
         setSize(500, 400);
         setLocationRelativeTo(null);
 
-        profileImageLabel.setIcon(user.getProfileImage(50, 50));
-
-        try {
-            ResultSet rs = DBConnection.getFlightDetails(flightId);
-            if (rs != null && rs.next()) {
-                SimpleDateFormat sdf = new SimpleDateFormat("EEE, MMM d yyyy HH:mm");
-
-                flightNumberLabel.setText("BA" + flightId);
-                routeLabel.setText(rs.getString("departure_city") + " → " + rs.getString("destination_city"));
-                departureLabel.setText(sdf.format(rs.getTimestamp("departure_time")));
-                arrivalLabel.setText(sdf.format(rs.getTimestamp("arrival_time")));
-                seatLabel.setText(seat);
-                priceLabel.setText(String.format("€%.2f", rs.getDouble("price")));
-                classLabel.setText(rs.getBoolean("is_exclusive") ? "Business ⭐" : "Economy");
-            }
-        } catch (SQLException e) {
+        AvatarCache.show(profileImageLabel, user, 50, 50);
+
+        AsyncData.load(this, () -> Metrics.time("ui.ticketDetails", () -> new Details(
+                        DBConnection.getFlightDetails(flightId), TicketRepository.findPricePaid(ticketId))),
+                details -> showDetails(details, flightId, seat),
+                e -> JOptionPane.showMessageDialog(this, "Error loading ticket details"));
+
+        closeButton.addActionListener(e -> dispose());
+    }
+
+    private void showDetails(Details details, int flightId, String seat) {
+        Flight flight = details.flight();
+        if (flight == null) {
             JOptionPane.showMessageDialog(this, "Error loading ticket details");
+            return;
         }
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("EEE, MMM d yyyy HH:mm");
 
-        closeButton.addActionListener(e -> dispose());
+        flightNumberLabel.setText("BA" + flightId);
+        routeLabel.setText(flight.departureCity() + " → " + flight.destinationCity());
+        departureLabel.setText(format.format(flight.departureTime()));
+        arrivalLabel.setText(format.format(flight.arrivalTime()));
+        seatLabel.setText(seat);
+        // flights.price is the base fare; the ticket records what was actually charged.
+        double price = details.pricePaid() != null ? details.pricePaid() : flight.price();
+        priceLabel.setText(String.format("€%.2f", price));
+        classLabel.setText(flight.exclusive() ? "Business ⭐" : "Economy");
+    }
+
+    private record Details(Flight flight, Double pricePaid) {
     }
-}
\ No newline at end of file
+}
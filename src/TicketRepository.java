@@ -0,0 +1,69 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TicketRepository {
+    private TicketRepository() {
+    }
+
+    /** The user a ticket belongs to, or {@code null} when there is no such ticket. */
+    public static Integer findOwner(int ticketId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT user_id FROM tickets WHERE ticket_id = ?")) {
+            pstmt.setInt(1, ticketId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    /** What the ticket was sold for, or {@code null} when there is no such ticket or it predates fares. */
+    public static Double findPricePaid(int ticketId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT price_paid FROM tickets WHERE ticket_id = ?")) {
+            pstmt.setInt(1, ticketId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) return null;
+                double price = rs.getDouble(1);
+                return rs.wasNull() ? null : price;
+            }
+        }
+    }
+
+    /** One page of a user's bookings in ticket order, skipping {@code offset} rows. */
+    public static List<Booking> findBookings(int userId, int offset, int limit) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT " + Booking.COLUMNS +
+                     " FROM tickets t JOIN flights f ON t.flight_id = f.flight_id " +
+                     "WHERE t.user_id = ? ORDER BY t.ticket_id LIMIT ? OFFSET ?")) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, limit);
+            pstmt.setInt(3, offset);
+            return bookings(pstmt, limit);
+        }
+    }
+
+    /** The next page of a user's bookings after ticket {@code afterTicketId}, in ticket order (keyset). */
+    public static List<Booking> findBookingsAfter(int userId, int afterTicketId, int limit) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT " + Booking.COLUMNS +
+                     " FROM tickets t JOIN flights f ON t.flight_id = f.flight_id " +
+                     "WHERE t.user_id = ? AND t.ticket_id > ? ORDER BY t.ticket_id LIMIT ?")) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, afterTicketId);
+            pstmt.setInt(3, limit);
+            return bookings(pstmt, limit);
+        }
+    }
+
+    private static List<Booking> bookings(PreparedStatement pstmt, int limit) throws SQLException {
+        List<Booking> rows = new ArrayList<>(limit);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) rows.add(Booking.from(rs));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,86 @@
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Retries for the short transactions that lock flights in id order, and the SQL they share. */
+final class Transactions {
+    static final int MAX_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 5;
+    private static final long MAX_BACKOFF_MILLIS = 200;
+
+    private Transactions() {
+    }
+
+    /** One attempt at a transaction; it commits or rolls back its own connection. */
+    @FunctionalInterface
+    interface Attempt<T> {
+        T run() throws SQLException;
+    }
+
+    /** Contention counters an engine keeps for its stats. */
+    record Counters(LongAdder attempts, LongAdder retries, LongAdder exhausted) {
+    }
+
+    static <T> T retry(Attempt<T> attempt) throws SQLException {
+        return retry(null, attempt);
+    }
+
+    /**
+     * Runs {@code attempt} until it succeeds, fails for a reason a retry cannot fix, or has been tried
+     * {@link #MAX_ATTEMPTS} times, with a jittered backoff between tries.
+     */
+    static <T> T retry(Counters counters, Attempt<T> attempt) throws SQLException {
+        for (int n = 1; ; n++) {
+            if (counters != null) counters.attempts().increment();
+            try {
+                return attempt.run();
+            } catch (SQLException e) {
+                boolean retryable = isRetryable(e);
+                if (!retryable || n == MAX_ATTEMPTS) {
+                    if (retryable && counters != null) counters.exhausted().increment();
+                    throw e;
+                }
+                if (counters != null) counters.retries().increment();
+                backoff(n);
+            }
+        }
+    }
+
+    /** Deadlocks, lock wait timeouts and serialization failures: the transaction was rolled back and may rerun. */
+    static boolean isRetryable(SQLException e) {
+        for (SQLException cur = e; cur != null; cur = cur.getNextException()) {
+            String state = cur.getSQLState();
+            if (cur instanceof SQLTransactionRollbackException
+                    || "40001".equals(state) || "40P01".equals(state)
+                    || cur.getErrorCode() == 1213 || cur.getErrorCode() == 1205) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static void backoff(int attempt) throws SQLException {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << (attempt - 1));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while retrying a transaction", e);
+        }
+    }
+
+    /** {@code ?, ?, ?} for an {@code IN} list of {@code count} values. */
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /** Binds {@code params} from parameter index {@code from}; returns the next free index. */
+    static int bind(PreparedStatement pstmt, List<?> params, int from) throws SQLException {
+        for (Object param : params) pstmt.setObject(from++, param);
+        return from;
+    }
+}
@@ -0,0 +1,66 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class UserRepository {
+
+    private UserRepository() {
+    }
+
+    public static Credentials findCredentials(String email) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT user_id, email, first_name, last_name, password FROM users WHERE email = ?")) {
+            pstmt.setString(1, email);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) return null;
+                return new Credentials(new User(
+                        rs.getInt("user_id"),
+                        rs.getString("email"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name")
+                ), rs.getString("password"));
+            }
+        }
+    }
+
+    public static byte[] findProfileImage(int userId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT profile_image FROM users WHERE user_id = ?")) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getBytes("profile_image") : null;
+            }
+        }
+    }
+
+    /** Replaces the hash only if it is still {@code oldHash}, so a password change is never overwritten. */
+    public static boolean replacePasswordHash(int userId, String oldHash, String newHash) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "UPDATE users SET password = ? WHERE user_id = ? AND password = ?")) {
+            pstmt.setString(1, newHash);
+            pstmt.setInt(2, userId);
+            pstmt.setString(3, oldHash);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    public static boolean insert(String email, String firstName, String lastName, String passwordHash,
+                                 byte[] image) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO users (email, first_name, last_name, password, profile_image) VALUES (?, ?, ?, ?, ?)")) {
+            pstmt.setString(1, email);
+            pstmt.setString(2, firstName);
+            pstmt.setString(3, lastName);
+            pstmt.setString(4, passwordHash);
+            pstmt.setBytes(5, image);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    public record Credentials(User user, String passwordHash) {
+    }
+}
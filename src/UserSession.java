@@ -0,0 +1,164 @@
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** What the desktop client keeps about the logged-in user, from login to logout. */
+public class UserSession {
+    private static final Logger LOG = Logger.getLogger(UserSession.class.getName());
+    private static final int LOAD_PAGE = 500;
+    private static final long REBOOK_WINDOW_DAYS = Long.getLong("flymanagement.rebook.windowDays", 3L);
+    private static final ConcurrentHashMap<Integer, UserSession> SESSIONS = new ConcurrentHashMap<>();
+
+    private final User user;
+    private final Runnable unsubscribe;
+    private final Map<String, Candidates> candidates = new ConcurrentHashMap<>();
+
+    private List<Booking> bookings;
+    private List<DomainEvent> missed;
+    private boolean stale;
+
+    private UserSession(User user) {
+        this.user = user;
+        this.unsubscribe = DomainEvents.subscribe(this::onDomainEvent);
+    }
+
+    public static UserSession of(User user) {
+        return SESSIONS.computeIfAbsent(user.getUserId(), id -> new UserSession(user));
+    }
+
+    public static void end(User user) {
+        UserSession session = SESSIONS.remove(user.getUserId());
+        if (session != null) session.unsubscribe.run();
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    /** The user's bookings in ticket order; the first call loads them. */
+    public List<Booking> bookings() throws SQLException {
+        synchronized (this) {
+            if (bookings != null && !stale) return new ArrayList<>(bookings);
+            bookings = null;
+            stale = false;
+            if (missed == null) missed = new ArrayList<>();
+        }
+
+        List<Booking> loaded = Metrics.time("session.loadBookings", this::load);
+        synchronized (this) {
+            if (bookings == null) {
+                bookings = loaded;
+                // Changes committed while loading may or may not be in the result; applying them is idempotent.
+                List<DomainEvent> replay = missed;
+                missed = null;
+                if (replay != null) replay.forEach(this::apply);
+            }
+            return new ArrayList<>(bookings);
+        }
+    }
+
+    /**
+     * Flights the booking can move to: same route, departing within {@code flymanagement.rebook.windowDays}
+     * of the booked flight, not yet departed and with seats left, by departure time. The booked flight
+     * itself is included so the seat can be changed.
+     */
+    public List<Flight> rebookingCandidates(Booking booking) throws SQLException {
+        FlightCatalog catalog = FlightCatalog.shared();
+        catalog.refreshIfStale();
+        String route = booking.departureCity() + '\u0000' + booking.destinationCity();
+        LocalDate day = booking.departureTime().toLocalDate();
+        String key = route + '\u0000' + day;
+
+        Candidates cached = candidates.get(key);
+        long version = catalog.version();
+        if (cached != null && cached.version() == version) return cached.flights();
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = day.minusDays(REBOOK_WINDOW_DAYS).atStartOfDay();
+        LocalDateTime to = day.plusDays(REBOOK_WINDOW_DAYS + 1).atStartOfDay();
+        List<Flight> flights = new ArrayList<>();
+        for (Flight flight : catalog.query(
+                new FlightCatalog.Filter(booking.departureCity(), booking.destinationCity(), null, null))) {
+            LocalDateTime departs = flight.departureTime();
+            if (departs.isAfter(now) && !departs.isBefore(from) && departs.isBefore(to)) flights.add(flight);
+        }
+        Flight booked = catalog.get(booking.flightId());
+        if (booked != null && !flights.contains(booked)) flights.add(booked);
+        flights.sort(Comparator.comparing(Flight::departureTime).thenComparingInt(Flight::flightId));
+
+        List<Flight> result = List.copyOf(flights);
+        candidates.put(key, new Candidates(version, result));
+        return result;
+    }
+
+    private List<Booking> load() throws SQLException {
+        List<Booking> all = new ArrayList<>();
+        int after = 0;
+        while (true) {
+            List<Booking> page = TicketRepository.findBookingsAfter(user.getUserId(), after, LOAD_PAGE);
+            all.addAll(page);
+            if (page.size() < LOAD_PAGE) return all;
+            after = page.get(page.size() - 1).ticketId();
+        }
+    }
+
+    private synchronized void onDomainEvent(DomainEvent event) {
+        if (event.userId() != user.getUserId()) return;
+        if (bookings == null) {
+            if (missed != null) missed.add(event);
+            return;
+        }
+        apply(event);
+    }
+
+    private void apply(DomainEvent event) {
+        int ticketId = event.ticketId();
+        switch (event.type()) {
+            case BOOKED -> {
+                for (Booking b : bookings) {
+                    if (b.ticketId() == ticketId) return;
+                }
+                Booking booking = booking(ticketId, event.flightId(), event.seat());
+                if (booking == null) return;
+                bookings.add(booking);
+                bookings.sort(Comparator.comparingInt(Booking::ticketId));
+            }
+            case CANCELLED -> bookings.removeIf(b -> b.ticketId() == ticketId);
+            case MOVED -> {
+                Booking moved = booking(ticketId, event.flightId(), event.seat());
+                if (moved != null) bookings.replaceAll(b -> b.ticketId() == ticketId ? moved : b);
+            }
+            default -> {
+            }
+        }
+    }
+
+    /** Builds a booking row from the catalog, or returns {@code null} and marks the list for reloading. */
+    private Booking booking(int ticketId, int flightId, String seat) {
+        Flight flight = FlightCatalog.shared().get(flightId);
+        if (flight == null) {
+            try {
+                flight = FlightRepository.findById(flightId);
+            } catch (SQLException e) {
+                LOG.log(Level.FINE, "Could not load flight BA" + flightId, e);
+            }
+        }
+        if (flight == null) {
+            // Reload on next access rather than show a wrong list.
+            stale = true;
+            return null;
+        }
+        return new Booking(ticketId, flightId, flight.departureCity(), flight.destinationCity(),
+                flight.departureTime(), seat, flight.exclusive());
+    }
+
+    private record Candidates(long version, List<Flight> flights) {
+    }
+}
@@ -1,11 +1,16 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
-import java.sql.*;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class WelcomeFrame extends JFrame {
     private JTable flightsTable;
@@ -23,7 +28,16 @@ public class WelcomeFrame extends JFrame {
     private JLabel titleLabel;
     private JButton requestFlightBtn;
 
+    private static final int MAX_LEGS = 3;
+    private static final long CONNECTION_SEARCH_DAYS = 7;
+
     private final User currentUser;
+    private PagedTableModel<Flight> flightsModel;
+    private boolean updatingFilters;
+    private CityTypeAhead departureAhead;
+    private CityTypeAhead arrivalAhead;
+    private ManageBookingsFrame manageBookingsFrame;
+    private FlightCatalog.Filter offeredFilter;
 
     public WelcomeFrame(User user) {
         currentUser = user;
@@ -34,11 +48,14 @@ public class WelcomeFrame extends JFrame {
         setLocationRelativeTo(null);
 
         configureDateRenderer();
+        configureTypeAhead();
+        initializeTable();
         updateUserDisplay();
         loadFilterData();
-        loadFlights(new HashMap<>());
+        loadFlights(FlightCatalog.Filter.ANY);
         addEventListeners();
         addRequestFlightButton();
+        DomainEvents.subscribe(this, this::onDomainEvent);
     }
 
     private void addRequestFlightButton() {
@@ -53,54 +70,98 @@ public class WelcomeFrame extends JFrame {
             @Override
             public Component getListCellRendererComponent(JList<?> list, Object value,
                                                           int index, boolean isSelected, boolean cellHasFocus) {
-                value = (value instanceof Date) ? sdf.format(value) : "Any Date";
+                if (value instanceof Date) {
+                    FilterFacets.Facets facets = FilterFacets.getIfLoaded();
+                    LocalDate date = new java.sql.Date(((Date) value).getTime()).toLocalDate();
+                    value = withCount(sdf.format(value), facets == null ? null : facets.dates().get(date));
+                } else {
+                    value = "Any Date";
+                }
                 return super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
             }
         });
+        departureFilter.setRenderer(cityRenderer(true));
+        arrivalFilter.setRenderer(cityRenderer(false));
+    }
+
+    private void configureTypeAhead() {
+        RouteIndex routes = FlightCatalog.shared().routes();
+        departureAhead = new CityTypeAhead(departureFilter, routes::suggestOrigins);
+        // Only destinations actually served from the chosen origin.
+        arrivalAhead = new CityTypeAhead(arrivalFilter,
+                (text, limit) -> routes.suggestDestinations(text, routes.resolve(departureAhead.getText()), limit));
+    }
+
+    /** The city typed into a filter, spelled as in the catalog when it names one. */
+    private static String cityFilter(CityTypeAhead typeAhead) {
+        String text = typeAhead.getText();
+        if (text == null) return null;
+        String city = FlightCatalog.shared().routes().resolve(text);
+        return city != null ? city : text;
+    }
+
+    private ListCellRenderer<Object> cityRenderer(boolean departure) {
+        return new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value,
+                                                          int index, boolean isSelected, boolean cellHasFocus) {
+                FilterFacets.Facets facets = FilterFacets.getIfLoaded();
+                if (value != null && facets != null) {
+                    value = withCount((String) value,
+                            (departure ? facets.departures() : facets.destinations()).get(value));
+                }
+                return super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            }
+        };
+    }
+
+    private static String withCount(String label, Integer count) {
+        return count == null ? label : label + " (" + count + ")";
     }
 
     private void updateUserDisplay() {
-        profileImageLabel.setIcon(currentUser.getProfileImage(40, 40));
+        AvatarCache.show(profileImageLabel, currentUser, 40, 40);
         welcomeLabel.setText("Welcome, " + currentUser.getFirstName());
     }
 
     private void loadFilterData() {
-        loadComboData("SELECT DISTINCT departure_city FROM flights", departureFilter);
-        loadComboData("SELECT DISTINCT destination_city FROM flights", arrivalFilter);
-        loadDateOptions();
+        AsyncData.load(this, () -> Metrics.time("ui.loadFilterData", FilterFacets::get),
+                facets -> {
+                    List<Date> dates = new ArrayList<>();
+                    for (LocalDate date : facets.dates().keySet()) {
+                        dates.add(new Date(java.sql.Date.valueOf(date).getTime()));
+                    }
+                    updatingFilters = true;
+                    try {
+                        departureAhead.refresh();
+                        arrivalAhead.refresh();
+                        fillCombo(dateFilter, dates);
+                    } finally {
+                        updatingFilters = false;
+                    }
+                },
+                e -> JOptionPane.showMessageDialog(this, "Error loading filter data: " + AsyncData.describe(e)));
     }
 
-    private void loadComboData(String query, JComboBox<String> combo) {
+    private <T> void fillCombo(JComboBox<T> combo, List<T> values) {
+        Object selected = combo.getSelectedItem();
         combo.removeAllItems();
         combo.addItem(null);
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query);
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                combo.addItem(rs.getString(1));
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading filter data: " + e.getMessage());
-        }
-    }
-
-    private void loadDateOptions() {
-        dateFilter.removeAllItems();
-        dateFilter.addItem(null);
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(
-                     "SELECT DISTINCT DATE(departure_time) FROM flights");
-             ResultSet rs = pstmt.executeQuery()) {
-            while (rs.next()) {
-                dateFilter.addItem(new Date(rs.getDate(1).getTime()));
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading dates: " + e.getMessage());
+        for (T value : values) {
+            combo.addItem(value);
         }
+        combo.setSelectedItem(selected);
     }
 
     private void addEventListeners() {
-        ActionListener filterListener = e -> applyActiveFilter();
+        ActionListener filterListener = e -> {
+            if (!updatingFilters && !departureAhead.isAdjusting() && !arrivalAhead.isAdjusting()) {
+                applyActiveFilter();
+            }
+        };
+        departureFilter.addActionListener(e -> {
+            if (!departureAhead.isAdjusting()) arrivalAhead.refresh();
+        });
         departureFilter.addActionListener(filterListener);
         arrivalFilter.addActionListener(filterListener);
         dateFilter.addActionListener(filterListener);
@@ -109,107 +170,147 @@ public class WelcomeFrame extends JFrame {
         clearFiltersBtn.addActionListener(e -> clearFilters());
         bookBtn.addActionListener(e -> bookFlight());
         logoutBtn.addActionListener(e -> {
+            if (manageBookingsFrame != null) manageBookingsFrame.dispose();
+            UserSession.end(currentUser);
             new LoginForm().setVisible(true);
             dispose();
         });
         manageBookingsBtn.addActionListener(e -> {
-            new ManageBookingsFrame(currentUser).setVisible(true);
+            if (manageBookingsFrame == null || !manageBookingsFrame.isDisplayable()) {
+                manageBookingsFrame = new ManageBookingsFrame(currentUser, this);
+            }
+            manageBookingsFrame.setVisible(true);
+            manageBookingsFrame.toFront();
         });
     }
 
     private void applyActiveFilter() {
-        Map<String, Object> filters = new HashMap<>();
-        if (departureFilter.getSelectedItem() != null) {
-            filters.put("departure", departureFilter.getSelectedItem());
-        }
-        if (arrivalFilter.getSelectedItem() != null) {
-            filters.put("arrival", arrivalFilter.getSelectedItem());
-        }
-        if (dateFilter.getSelectedItem() != null) {
-            filters.put("date", new java.sql.Date(((Date) dateFilter.getSelectedItem()).getTime()));
-        }
-        filters.put("exclusive", exclusiveFilter.isSelected());
-        loadFlights(filters);
+        Date date = (Date) dateFilter.getSelectedItem();
+        FlightCatalog.Filter filter = new FlightCatalog.Filter(
+                cityFilter(departureAhead),
+                cityFilter(arrivalAhead),
+                date == null ? null : new java.sql.Date(date.getTime()).toLocalDate(),
+                exclusiveFilter.isSelected());
+        loadFlights(filter);
+        offerConnection(filter);
     }
 
-    private void clearFilters() {
-        departureFilter.setSelectedItem(null);
-        arrivalFilter.setSelectedItem(null);
-        dateFilter.setSelectedItem(null);
-        exclusiveFilter.setSelected(false);
-        loadFlights(new HashMap<>());
-    }
-
-    private void loadFlights(Map<String, Object> filters) {
-        DefaultTableModel model = new DefaultTableModel(
-                new Object[]{"Flight No", "From", "To", "Departure", "Arrival", "Price", "Seats", "Exclusive"}, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+    /** When two known cities have no direct flight, suggests the cheapest itinerary with a connection. */
+    private void offerConnection(FlightCatalog.Filter filter) {
+        FlightCatalog catalog = FlightCatalog.shared();
+        String from = catalog.routes().resolve(filter.departure());
+        String to = catalog.routes().resolve(filter.destination());
+        if (from == null || to == null || from.equals(to) || filter.exclusive()) return;
+        // Editable combos fire once on selection and again on edit; offer once per filter.
+        if (filter.equals(offeredFilter)) return;
+        offeredFilter = filter;
 
-        String query = buildFlightQuery(filters);
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(query)) {
-
-            int paramIndex = 1;
-            if (filters.containsKey("departure")) {
-                pstmt.setString(paramIndex++, (String) filters.get("departure"));
-            }
-            if (filters.containsKey("arrival")) {
-                pstmt.setString(paramIndex++, (String) filters.get("arrival"));
-            }
-            if (filters.containsKey("date")) {
-                pstmt.setDate(paramIndex++, (java.sql.Date) filters.get("date"));
-            }
-            if (filters.containsKey("exclusive")) {
-                pstmt.setBoolean(paramIndex++, (Boolean) filters.get("exclusive"));
-            }
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                SimpleDateFormat sdf = new SimpleDateFormat("EEE, MMM d HH:mm");
-                while (rs.next()) {
-                    model.addRow(new Object[]{
-                            "BA" + rs.getInt("flight_id"),
-                            rs.getString("departure_city"),
-                            rs.getString("destination_city"),
-                            sdf.format(rs.getTimestamp("departure_time")),
-                            sdf.format(rs.getTimestamp("arrival_time")),
-                            String.format("€%.2f", rs.getDouble("price")),
-                            rs.getInt("available_seats"),
-                            rs.getBoolean("is_exclusive") ? "⭐" : ""
-                    });
-                }
-            }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime earliest = filter.date() == null ? now : filter.date().atStartOfDay();
+        if (earliest.isBefore(now)) earliest = now;
+        Duration window = filter.date() == null ? Duration.ofDays(CONNECTION_SEARCH_DAYS)
+                : Duration.between(earliest, filter.date().plusDays(1).atStartOfDay());
+        LocalDateTime start = earliest;
+        AsyncData.load(this, () -> {
+                    if (!catalog.query(filter).isEmpty()) return null;
+                    return Metrics.time("ui.findConnection", () -> catalog.connections().find(from, to, start,
+                            window, MAX_LEGS, BookingService.MIN_CONNECTION, ConnectionFinder.Objective.CHEAPEST));
+                },
+                itinerary -> {
+                    if (itinerary != null) showItinerary(itinerary);
+                },
+                e -> JOptionPane.showMessageDialog(this, "Error searching connections: " + AsyncData.describe(e)));
+    }
 
-            flightsTable.setModel(model);
-            flightsTable.getColumnModel().getColumn(7).setMaxWidth(60);
+    private void showItinerary(ConnectionFinder.Itinerary itinerary) {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("EEE, MMM d HH:mm");
+        StringBuilder text = new StringBuilder("No direct flights, but you can fly:\n\n");
+        for (Flight leg : itinerary.legs()) {
+            text.append(String.format("BA%d  %s → %s  %s - %s  €%.2f%n", leg.flightId(),
+                    leg.departureCity(), leg.destinationCity(), leg.departureTime().format(format),
+                    leg.arrivalTime().format(format), leg.price()));
+        }
+        text.append(String.format("%nTotal: €%.2f per passenger%n%nBook this trip?", itinerary.price()));
+        int choice = JOptionPane.showConfirmDialog(this, text.toString(), "Connecting flights",
+                JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE);
+        if (choice != JOptionPane.YES_OPTION) return;
+        Integer passengers = askPassengers();
+        if (passengers == null) return;
+        List<Integer> flightIds = new ArrayList<>();
+        List<Double> fares = new ArrayList<>();
+        for (Flight leg : itinerary.legs()) {
+            flightIds.add(leg.flightId());
+            fares.add(leg.price());
+        }
+        bookGroup(flightIds, passengers, fares);
+    }
 
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading flights: " + e.getMessage());
+    private void clearFilters() {
+        updatingFilters = true;
+        try {
+            departureAhead.clear();
+            arrivalAhead.clear();
+            dateFilter.setSelectedItem(null);
+            exclusiveFilter.setSelected(false);
+        } finally {
+            updatingFilters = false;
         }
+        loadFlights(FlightCatalog.Filter.ANY);
     }
 
-    private String buildFlightQuery(Map<String, Object> filters) {
-        StringBuilder query = new StringBuilder(
-                "SELECT flight_id, departure_city, destination_city, " +
-                        "departure_time, arrival_time, price, available_seats, is_exclusive " +
-                        "FROM flights WHERE available_seats > 0 ");
+    private void loadFlights(FlightCatalog.Filter filter) {
+        flightsModel.setSource(PagedTableModel.PageSource.timed("ui.loadFlights", new CatalogFlightSource(filter)));
+    }
 
-        if (filters.containsKey("departure")) {
-            query.append("AND departure_city = ? ");
+    /** Keeps the table and facets in step with bookings made here, in other windows or on other terminals. */
+    private void onDomainEvent(DomainEvent event) {
+        if (event.type() == DomainEvent.Type.FLIGHTS_ADDED) {
+            loadFilterData();
+            flightsModel.reload();
+            return;
         }
-        if (filters.containsKey("arrival")) {
-            query.append("AND destination_city = ? ");
+        refreshFlightRow(event.flightId());
+        if (event.fromFlightId() != 0 && event.fromFlightId() != event.flightId()) {
+            refreshFlightRow(event.fromFlightId());
         }
-        if (filters.containsKey("date")) {
-            query.append("AND DATE(departure_time) = ? ");
+    }
+
+    private void refreshFlightRow(int flightId) {
+        Flight current = FlightCatalog.shared().get(flightId);
+        if (current == null) return;
+        if (current.availableSeats() == 0) {
+            // Sold out: it no longer matches any filter.
+            flightsModel.removeRows(f -> f.flightId() == flightId);
+            loadFilterData();
+            return;
         }
-        if (filters.containsKey("exclusive")) {
-            query.append("AND is_exclusive = ? ");
+        boolean[] shown = {false};
+        flightsModel.updateRows(f -> {
+            if (f.flightId() != flightId) return f;
+            shown[0] = true;
+            return current;
+        });
+        if (!shown[0] && current.availableSeats() == 1) {
+            // Was sold out and may match the active filter again.
+            flightsModel.reload();
+            loadFilterData();
         }
-        return query.toString();
+    }
+
+    private void initializeTable() {
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("EEE, MMM d HH:mm");
+        flightsModel = new PagedTableModel<>(this, List.of(
+                new PagedTableModel.Column<Flight>("Flight No", f -> "BA" + f.flightId()),
+                new PagedTableModel.Column<Flight>("From", Flight::departureCity),
+                new PagedTableModel.Column<Flight>("To", Flight::destinationCity),
+                new PagedTableModel.Column<Flight>("Departure", f -> format.format(f.departureTime())),
+                new PagedTableModel.Column<Flight>("Arrival", f -> format.format(f.arrivalTime())),
+                new PagedTableModel.Column<Flight>("Price", f -> String.format("€%.2f", f.price())),
+                new PagedTableModel.Column<Flight>("Seats", Flight::availableSeats),
+                new PagedTableModel.Column<Flight>("Exclusive", f -> f.exclusive() ? "⭐" : "")
+        ), 100, 10);
+        flightsModel.attach(flightsTable);
+        flightsTable.getColumnModel().getColumn(7).setMaxWidth(60);
     }
 
     private void bookFlight() {
@@ -219,54 +320,112 @@ public class WelcomeFrame extends JFrame {
             return;
         }
 
-        try {
-            String flightNumber = (String) flightsTable.getValueAt(selectedRow, 0);
-            int flightId = Integer.parseInt(flightNumber.replace("BA", ""));
-
-            String seat = (String) JOptionPane.showInputDialog(
-                    this,
-                    "Enter seat number:",
-                    "Seat Selection",
-                    JOptionPane.PLAIN_MESSAGE
-            );
-
-            if (seat != null) {
-                seat = seat.trim().toUpperCase();
-
-                if (seat.isEmpty()) {
-                    JOptionPane.showMessageDialog(this, "Please enter a seat number");
-                    return;
-                }
+        Flight flight = flightsModel.getRow(selectedRow);
+        if (flight == null) {
+            JOptionPane.showMessageDialog(this, "Please wait for the flight list to load");
+            return;
+        }
+        int flightId = flight.flightId();
+        Integer passengers = askPassengers();
+        if (passengers == null) return;
+        if (passengers > 1) {
+            bookGroup(List.of(flightId), passengers, List.of(flight.price()));
+            return;
+        }
 
-                if (!seat.matches("^[A-Z][0-9]+$")) {
-                    JOptionPane.showMessageDialog(this,
-                            "Invalid seat format!\nMust start with a letter followed by numbers\nExample: A12");
-                    return;
-                }
+        bookBtn.setEnabled(false);
+        // Hold a seat while the dialog is open, so nobody else can book it from under the customer.
+        AsyncData.load(this, () -> {
+                    SeatMap seatMap = SeatMapRegistry.get(flightId);
+                    return new HeldSeat(seatMap, BookingService.hold(currentUser.getUserId(), flightId));
+                },
+                held -> chooseSeatAndBook(held.seatMap(), held.hold()),
+                e -> {
+                    bookBtn.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Booking failed: " + AsyncData.describe(e));
+                });
+    }
 
-                try {
-                    String seatNumberPart = seat.replaceAll("[^0-9]", "");
-                    int seatNumber = Integer.parseInt(seatNumberPart);
-                    if (seatNumber < 1) {
-                        JOptionPane.showMessageDialog(this, "Seat number must be at least 1");
-                        return;
-                    }
-                } catch (NumberFormatException e) {
-                    JOptionPane.showMessageDialog(this, "Invalid seat number format");
-                    return;
-                }
+    private void chooseSeatAndBook(SeatMap seatMap, SeatHoldService.Hold hold) {
+        List<String> seats = new ArrayList<>();
+        seats.add(hold.seat());
+        for (String free : seatMap.freeSeats()) {
+            if (!free.equals(hold.seat())) seats.add(free);
+        }
+        long minutes = Math.max(1, (hold.expiresAt() - System.currentTimeMillis()) / 60_000);
 
-                if (DBConnection.bookTicket(currentUser.getUserId(), flightId, seat)) {
-                    new TicketDetailsFrame(currentUser, flightId, seat).setVisible(true);
-                    loadFlights(new HashMap<>());
-                } else {
-                    JOptionPane.showMessageDialog(this, "Booking failed! Please try again.");
-                }
-            }
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Invalid flight number format!");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Unexpected error: " + e.getMessage());
+        String seat = (String) JOptionPane.showInputDialog(
+                this,
+                String.format("Seat %s is held for you for %d minutes at €%.2f.%nChoose a seat (%d free):",
+                        hold.seat(), minutes, hold.fare(), seats.size()),
+                "Seat Selection",
+                JOptionPane.PLAIN_MESSAGE,
+                null,
+                seats.toArray(new String[0]),
+                hold.seat()
+        );
+
+        if (seat == null) {
+            bookBtn.setEnabled(true);
+            AsyncData.load(this, () -> {
+                        BookingService.releaseHold(hold);
+                        return null;
+                    }, ignored -> {
+                    },
+                    e -> Logger.getLogger(WelcomeFrame.class.getName())
+                            .log(Level.FINE, "Seat hold will expire instead", e));
+            return;
         }
+
+        // Charged at the held fare shown above.
+        AsyncData.load(this, () -> BookingService.book(currentUser.getUserId(), hold, seat, hold.fare()),
+                ticketId -> {
+                    bookBtn.setEnabled(true);
+                    new TicketDetailsFrame(currentUser, ticketId, hold.flightId(), seat).setVisible(true);
+                },
+                e -> {
+                    bookBtn.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Booking failed: " + AsyncData.describe(e));
+                });
+    }
+
+    /** Returns {@code null} when the customer cancels. */
+    private Integer askPassengers() {
+        JSpinner spinner = new JSpinner(new SpinnerNumberModel(1, 1, BookingService.MAX_GROUP, 1));
+        int choice = JOptionPane.showConfirmDialog(this, new Object[]{"Number of passengers:", spinner},
+                "Passengers", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        return choice == JOptionPane.OK_OPTION ? (Integer) spinner.getValue() : null;
+    }
+
+    /** Books every passenger on every flight at once at the fares shown; seats are picked side by side. */
+    private void bookGroup(List<Integer> flightIds, int passengers, List<Double> fares) {
+        bookBtn.setEnabled(false);
+        AsyncData.load(this, () -> BookingService.bookGroup(currentUser.getUserId(), flightIds, passengers, fares),
+                tickets -> {
+                    bookBtn.setEnabled(true);
+                    StringBuilder text = new StringBuilder(String.format("Booked %d tickets:%n", tickets.size()));
+                    double total = 0;
+                    int flightId = -1;
+                    for (GroupBookingEngine.Ticket t : tickets) {
+                        if (t.flightId() != flightId) {
+                            flightId = t.flightId();
+                            text.append(String.format("%nBA%d  €%.2f per seat:  ", flightId, t.fare()));
+                        } else {
+                            text.append(", ");
+                        }
+                        text.append(t.seat());
+                        total += t.fare();
+                    }
+                    text.append(String.format("%n%nTotal: €%.2f", total));
+                    JOptionPane.showMessageDialog(this, text.toString(), "Group booking", JOptionPane.INFORMATION_MESSAGE);
+                },
+                e -> {
+                    bookBtn.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Booking failed: " + AsyncData.describe(e));
+                });
     }
-}
\ No newline at end of file
+
+    private record HeldSeat(SeatMap seatMap, SeatHoldService.Hold hold) {
+    }
+
+}
@@ -0,0 +1,11 @@
+-- Route search: city equality, departure range, seats > 0 and class, covering every selected column.
+CREATE INDEX idx_flights_route_departure
+    ON flights (departure_city, destination_city, departure_time, available_seats, is_exclusive, arrival_time, price);
+
+-- Date-only searches and the catalog's "what departs next" scans.
+CREATE INDEX idx_flights_departure_time
+    ON flights (departure_time, available_seats);
+
+-- Destination-only searches.
+CREATE INDEX idx_flights_destination_departure
+    ON flights (destination_city, departure_time);
@@ -0,0 +1,7 @@
+-- "My bookings": tickets for a user joined to flights by flight_id.
+CREATE INDEX idx_tickets_user_flight
+    ON tickets (user_id, flight_id, seat_number);
+
+-- Seat-taken checks and seat-map loads. Not UNIQUE yet: older data may already hold duplicate seats.
+CREATE INDEX idx_tickets_flight_seat
+    ON tickets (flight_id, seat_number);
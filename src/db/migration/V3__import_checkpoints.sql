@@ -0,0 +1,8 @@
+-- Progress of bulk schedule imports, committed in the same transaction as each chunk of flights.
+CREATE TABLE IF NOT EXISTS import_checkpoints (
+    source VARCHAR(255) PRIMARY KEY,
+    line_no INT NOT NULL,
+    imported INT NOT NULL,
+    rejected INT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
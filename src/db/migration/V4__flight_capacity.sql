@@ -0,0 +1,7 @@
+-- Seats a flight was created with, so available_seats can be recomputed from tickets.
+ALTER TABLE flights ADD COLUMN total_seats INT NULL;
+
+-- Best estimate for existing flights; seats lost to cancellations before this release are not recoverable.
+UPDATE flights
+SET total_seats = available_seats + (SELECT COUNT(*) FROM tickets t WHERE t.flight_id = flights.flight_id)
+WHERE total_seats IS NULL;
@@ -0,0 +1,16 @@
+-- Booking and schedule changes, written in the same transaction as the change so other terminals can
+-- poll for them and update their caches and open windows incrementally.
+CREATE TABLE IF NOT EXISTS change_log (
+    change_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(20) NOT NULL,
+    ticket_id INT NOT NULL DEFAULT 0,
+    user_id INT NOT NULL DEFAULT 0,
+    flight_id INT NOT NULL DEFAULT 0,
+    seat_number VARCHAR(10) NULL,
+    from_flight_id INT NOT NULL DEFAULT 0,
+    from_seat VARCHAR(10) NULL,
+    origin VARCHAR(36) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_change_log_created ON change_log (created_at);
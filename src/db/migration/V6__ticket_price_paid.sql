@@ -0,0 +1,7 @@
+-- The fare a ticket was sold at; flights.price is only the base the fare engine starts from.
+ALTER TABLE tickets ADD COLUMN price_paid DOUBLE NULL;
+
+-- Tickets sold before dynamic fares paid the base price.
+UPDATE tickets
+SET price_paid = (SELECT f.price FROM flights f WHERE f.flight_id = tickets.flight_id)
+WHERE price_paid IS NULL;
@@ -0,0 +1,16 @@
+-- Seats held while a customer is in the booking dialog. A hold has already been taken out of
+-- flights.available_seats, so booking it only inserts the ticket; expiry puts the seat back.
+CREATE TABLE IF NOT EXISTS seat_holds (
+    hold_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    flight_id INT NOT NULL,
+    seat_number VARCHAR(10) NOT NULL,
+    user_id INT NOT NULL,
+    fare DOUBLE NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- One hold per seat, across all terminals.
+CREATE UNIQUE INDEX idx_seat_holds_flight_seat ON seat_holds (flight_id, seat_number);
+
+-- Sweeps for holds left behind by terminals that exited without releasing them.
+CREATE INDEX idx_seat_holds_expires ON seat_holds (expires_at);
@@ -0,0 +1,8 @@
+-- Routes customers asked for from the welcome window.
+CREATE TABLE IF NOT EXISTS flight_requests (
+    request_id INT AUTO_INCREMENT PRIMARY KEY,
+    departure_city VARCHAR(100) NOT NULL,
+    destination_city VARCHAR(100) NOT NULL,
+    travel_date DATE NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
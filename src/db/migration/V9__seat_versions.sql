@@ -0,0 +1,8 @@
+-- Bumped with every change to available_seats, so caches can tell which of two seat counts is newer.
+ALTER TABLE flights ADD COLUMN seat_version BIGINT NOT NULL DEFAULT 0;
+
+-- Seat counts as each change committed them; NULL on rows written before this release.
+ALTER TABLE change_log ADD COLUMN available_seats INT NULL;
+ALTER TABLE change_log ADD COLUMN seat_version BIGINT NULL;
+ALTER TABLE change_log ADD COLUMN from_available_seats INT NULL;
+ALTER TABLE change_log ADD COLUMN from_seat_version BIGINT NULL;
@@ -0,0 +1,146 @@
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A search-heavy mix (70% search, 20% book, 10% cancel) from many clients against an in-process server.
+ * {@code flymanagement.loadtest.minRps} and {@code flymanagement.loadtest.p99Ms} add throughput targets.
+ */
+class ApiServerLoadTest {
+    private static final String PASSWORD = "load-test-password";
+    private static final int SEATS = 100_000;
+
+    private static ApiServer server;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void start() throws Exception {
+        TestDatabase.createSchemaIfMissing();
+        server = new ApiServer(0);
+        server.start();
+        baseUrl = "http://localhost:" + server.getPort();
+    }
+
+    @AfterAll
+    static void stop() {
+        server.stop();
+    }
+
+    @Test
+    void mixedLoadHasNoServerErrorsAndKeepsInventory() throws Exception {
+        int clients = Integer.getInteger("flymanagement.loadtest.clients", 16);
+        long seconds = Long.getLong("flymanagement.loadtest.seconds", 3L);
+        int flightId = TestDatabase.seedFlight(SEATS);
+        String email = "load-" + UUID.randomUUID().toString().substring(0, 8) + "@example.com";
+        DBConnection.register(email, "Load", "Test", PASSWORD, null);
+        FlightCatalog.shared().markStale();
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String token = login(http, email);
+
+        AtomicInteger nextSeat = new AtomicInteger();
+        ConcurrentLinkedQueue<Integer> booked = new ConcurrentLinkedQueue<>();
+        List<String> serverErrors = new ArrayList<>();
+        Metrics.Timer all = Metrics.timer("loadtest.all");
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long began = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        int roll = random.nextInt(100);
+                        HttpRequest request;
+                        boolean book = false;
+                        if (roll < 70) {
+                            request = send("/api/flights?from=Sofia&limit=20", "GET", null, null);
+                        } else if (roll < 90) {
+                            book = true;
+                            int n = nextSeat.getAndIncrement();
+                            String seat = "ABCDEF".charAt(n % 6) + String.valueOf(n / 6 + 1);
+                            request = send("/api/bookings", "POST", token,
+                                    Json.write(Map.of("flightId", flightId, "seat", seat)));
+                        } else {
+                            Integer ticketId = booked.poll();
+                            if (ticketId == null) continue;
+                            request = send("/api/bookings/" + ticketId, "DELETE", token, null);
+                        }
+
+                        long start = System.nanoTime();
+                        HttpResponse<String> response;
+                        try {
+                            response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                        } catch (IOException e) {
+                            continue;
+                        }
+                        all.record(System.nanoTime() - start);
+
+                        if (response.statusCode() >= 500) {
+                            synchronized (serverErrors) {
+                                serverErrors.add(request.method() + " " + request.uri() + ": " + response.body());
+                            }
+                        } else if (book && response.statusCode() == 201) {
+                            Object ticketId = Json.parseObject(response.body()).get("ticketId");
+                            booked.add(((Double) ticketId).intValue());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        double elapsedSeconds = (System.nanoTime() - began) / 1e9;
+
+        assertEquals(List.of(), serverErrors);
+        TestDatabase.Inventory inventory = TestDatabase.inventory(flightId);
+        assertEquals(SEATS, inventory.tickets() + inventory.available());
+        assertEquals(inventory.tickets(), inventory.distinctSeats(), "duplicate seat assignments");
+
+        Metrics.Snapshot total = Metrics.snapshot().get("loadtest.all");
+        long minRps = Long.getLong("flymanagement.loadtest.minRps", 0L);
+        long p99Ms = Long.getLong("flymanagement.loadtest.p99Ms", 0L);
+        assertTrue(total.count() / elapsedSeconds >= minRps, total.count() / elapsedSeconds + " req/s");
+        assertTrue(p99Ms == 0 || total.p99Micros() <= p99Ms * 1_000, "p99 " + total.p99Micros() + " us");
+    }
+
+    private static String login(HttpClient http, String email) throws Exception {
+        HttpResponse<String> response = http.send(send("/api/login", "POST", null,
+                Json.write(Map.of("email", email, "password", PASSWORD))), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        return (String) Json.parseObject(response.body()).get("token");
+    }
+
+    private static HttpRequest send(String path, String method, String token, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10));
+        if (token != null) builder.header("Authorization", "Bearer " + token);
+        if (body != null) builder.header("Content-Type", "application/json");
+        return builder.method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+}
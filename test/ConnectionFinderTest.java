@@ -0,0 +1,130 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConnectionFinderTest {
+    private static final Duration MIN_CONNECTION = Duration.ofMinutes(45);
+    private static final Duration WINDOW = Duration.ofHours(24);
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final int MAX_LEGS = 3;
+
+    @Test
+    void matchesExhaustiveSearch() {
+        Random random = new Random(7);
+        int cities = 12;
+        List<Flight> flights = schedule(random, 400, cities, 3);
+        ConnectionFinder finder = new ConnectionFinder();
+        for (Flight flight : flights) finder.add(flight);
+
+        for (int q = 0; q < 300; q++) {
+            String from = city(random.nextInt(cities));
+            String to = city(random.nextInt(cities));
+            if (from.equals(to)) continue;
+            LocalDateTime earliest = START.plusHours(random.nextInt(48));
+
+            double[] best = {Double.MAX_VALUE};
+            LocalDateTime[] earliestArrival = {null};
+            for (Flight first : flights) {
+                if (!first.departureCity().equals(from) || first.availableSeats() <= 0) continue;
+                if (first.departureTime().isBefore(earliest) || first.departureTime().isAfter(earliest.plus(WINDOW))) {
+                    continue;
+                }
+                exhaustive(flights, first, from, to, first.price(), 1, best, earliestArrival);
+            }
+
+            ConnectionFinder.Itinerary cheapest = finder.find(from, to, earliest, WINDOW, MAX_LEGS, MIN_CONNECTION,
+                    ConnectionFinder.Objective.CHEAPEST);
+            ConnectionFinder.Itinerary fastest = finder.find(from, to, earliest, WINDOW, MAX_LEGS, MIN_CONNECTION,
+                    ConnectionFinder.Objective.EARLIEST_ARRIVAL);
+            String query = from + "->" + to + " from " + earliest;
+            assertEquals(best[0] == Double.MAX_VALUE ? -1 : best[0], cheapest == null ? -1 : cheapest.price(), query);
+            assertEquals(earliestArrival[0], fastest == null ? null : fastest.arrival(), query);
+        }
+    }
+
+    @Test
+    void seatUpdatesTakeEffectInPlace() {
+        Flight direct = new Flight(1, "Sofia", "London", START.plusHours(8), START.plusHours(11), 300, 5, false, 180);
+        Flight first = new Flight(2, "Sofia", "Vienna", START.plusHours(7), START.plusHours(9), 80, 5, false, 180);
+        Flight second = new Flight(3, "Vienna", "London", START.plusHours(10), START.plusHours(12), 90, 5, false, 180);
+        ConnectionFinder finder = new ConnectionFinder();
+        finder.add(direct);
+        finder.add(first);
+        finder.add(second);
+
+        ConnectionFinder.Itinerary cheapest = find(finder, ConnectionFinder.Objective.CHEAPEST);
+        assertEquals(List.of(first, second), cheapest.legs());
+        assertEquals(170.0, cheapest.price());
+
+        finder.add(second.withAvailableSeats(0));
+        assertEquals(List.of(direct), find(finder, ConnectionFinder.Objective.CHEAPEST).legs());
+
+        finder.add(direct.withAvailableSeats(0));
+        assertNull(find(finder, ConnectionFinder.Objective.EARLIEST_ARRIVAL));
+        assertEquals(3, finder.size());
+    }
+
+    @Test
+    void tooShortAConnectionIsNotTaken() {
+        ConnectionFinder finder = new ConnectionFinder();
+        finder.add(new Flight(1, "Sofia", "Vienna", START.plusHours(7), START.plusHours(9), 80, 5, false, 180));
+        finder.add(new Flight(2, "Vienna", "London", START.plusHours(9).plusMinutes(30), START.plusHours(12), 90, 5,
+                false, 180));
+        assertNull(find(finder, ConnectionFinder.Objective.CHEAPEST));
+    }
+
+    private static ConnectionFinder.Itinerary find(ConnectionFinder finder, ConnectionFinder.Objective objective) {
+        return finder.find("Sofia", "London", START, WINDOW, MAX_LEGS, MIN_CONNECTION, objective);
+    }
+
+    /** Random flights of 1-6 hours, a third of them into or out of the first hub cities. */
+    private static List<Flight> schedule(Random random, int count, int cities, int days) {
+        List<Flight> flights = new ArrayList<>(count);
+        int hubs = Math.max(1, cities / 30);
+        for (int i = 0; i < count; i++) {
+            int from = random.nextInt(cities);
+            int to = random.nextInt(3) == 0 ? random.nextInt(hubs) : random.nextInt(cities);
+            if (random.nextBoolean()) {
+                int swap = from;
+                from = to;
+                to = swap;
+            }
+            if (from == to) to = (to + 1) % cities;
+            LocalDateTime departs = START.plusMinutes(random.nextInt(days * 24 * 60));
+            LocalDateTime arrives = departs.plusMinutes(60 + random.nextInt(300));
+            flights.add(new Flight(i + 1, city(from), city(to), departs, arrives, 50 + random.nextInt(450),
+                    random.nextInt(20) == 0 ? 0 : 1 + random.nextInt(180), false, 180));
+        }
+        return flights;
+    }
+
+    private static String city(int i) {
+        return "City" + i;
+    }
+
+    private static void exhaustive(List<Flight> flights, Flight leg, String origin, String to, double cost, int legs,
+                                   double[] best, LocalDateTime[] earliestArrival) {
+        if (leg.destinationCity().equals(to)) {
+            best[0] = Math.min(best[0], cost);
+            if (earliestArrival[0] == null || leg.arrivalTime().isBefore(earliestArrival[0])) {
+                earliestArrival[0] = leg.arrivalTime();
+            }
+            return;
+        }
+        if (legs == MAX_LEGS || leg.destinationCity().equals(origin)) return;
+        LocalDateTime ready = leg.arrivalTime().plus(MIN_CONNECTION);
+        LocalDateTime latest = leg.arrivalTime().plusHours(24);
+        for (Flight next : flights) {
+            if (!next.departureCity().equals(leg.destinationCity()) || next.availableSeats() <= 0) continue;
+            if (next.departureTime().isBefore(ready) || next.departureTime().isAfter(latest)) continue;
+            exhaustive(flights, next, origin, to, cost + next.price(), legs + 1, best, earliestArrival);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FareEngineTest {
+    private static final LocalDate TODAY = LocalDate.of(2030, 3, 1);
+
+    private static LocalDateTime inDays(int days) {
+        return TODAY.plusDays(days).atTime(9, 30);
+    }
+
+    @Test
+    void emptyFlightFarOutIsDiscounted() {
+        assertEquals(90.0, FareEngine.quote(100, 180, 180, inDays(90), false, TODAY));
+        assertEquals(95.0, FareEngine.quote(100, 40, 40, inDays(90), true, TODAY));
+    }
+
+    @Test
+    void fullFlightOnTheDayPaysBothSurcharges() {
+        assertEquals(288.0, FareEngine.quote(100, 0, 180, inDays(0), false, TODAY));
+        assertEquals(202.5, FareEngine.quote(100, 0, 40, inDays(0), true, TODAY));
+    }
+
+    @Test
+    void unknownCapacityCountsAsEmpty() {
+        assertEquals(FareEngine.quote(100, 180, 180, inDays(10), false, TODAY),
+                FareEngine.quote(100, 3, 0, inDays(10), false, TODAY));
+    }
+
+    @Test
+    void fareNeverFallsAsTheFlightFillsOrDepartureNears() {
+        for (boolean exclusive : new boolean[]{false, true}) {
+            for (int days = 0; days <= 90; days++) {
+                double previous = 0;
+                for (int available = 180; available >= 0; available--) {
+                    double fare = FareEngine.quote(100, available, 180, inDays(days), exclusive, TODAY);
+                    assertTrue(fare >= previous, "load " + available + ", day " + days);
+                    previous = fare;
+                }
+                double dayLater = FareEngine.quote(100, 90, 180, inDays(days + 1), exclusive, TODAY);
+                assertTrue(dayLater <= FareEngine.quote(100, 90, 180, inDays(days), exclusive, TODAY));
+            }
+        }
+    }
+
+    @Test
+    void roundedToTheCent() {
+        double fare = FareEngine.quote(123.457, 77, 180, inDays(5), false, TODAY);
+        assertEquals(fare, Math.round(fare * 100) / 100.0);
+    }
+
+    @Test
+    void quotesAFlightFromItsOwnSeatsAndDeparture() {
+        Flight flight = new Flight(1, "Sofia", "London", inDays(2), inDays(2).plusHours(3), 999, 45, false, 180);
+        assertEquals(FareEngine.quote(120, 45, 180, inDays(2), false, TODAY), FareEngine.quote(flight, 120, TODAY));
+    }
+}
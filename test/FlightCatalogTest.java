@@ -0,0 +1,191 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightCatalogTest {
+    private static final LocalDateTime DEPARTS = LocalDate.now().plusDays(10).atTime(9, 0);
+
+    @BeforeAll
+    static void schema() throws SQLException {
+        TestDatabase.createSchemaIfMissing();
+    }
+
+    private static Flight flight(int id, String from, String to, int available) {
+        return new Flight(id, from, to, DEPARTS, DEPARTS.plusHours(3), 100, available, false, 180);
+    }
+
+    @Test
+    void seatChangesRequoteAndRefilter() {
+        FlightCatalog catalog = new FlightCatalog(Long.MAX_VALUE, -1);
+        catalog.putAll(List.of(flight(1, "Sofia", "London", 10), flight(2, "Sofia", "Paris", 50)));
+        double fare = catalog.get(1).price();
+        long version = catalog.version();
+
+        catalog.seatsChanged(1, new DomainEvent.SeatCount(9, 1));
+        assertEquals(9, catalog.get(1).availableSeats());
+        assertTrue(catalog.get(1).price() >= fare);
+        assertTrue(catalog.version() > version);
+
+        catalog.seatsChanged(1, new DomainEvent.SeatCount(0, 2));
+        assertEquals(0, catalog.get(1).availableSeats());
+        assertEquals(List.of(2), ids(catalog.query(new FlightCatalog.Filter("Sofia", null, null, null))));
+        assertEquals(List.of(), catalog.query(new FlightCatalog.Filter(null, "London", null, null)));
+
+        catalog.seatsChanged(1, new DomainEvent.SeatCount(10, 3));
+        assertEquals(2, catalog.query(FlightCatalog.Filter.ANY).size());
+        assertEquals(fare, catalog.get(1).price());
+
+        catalog.seatsChanged(99, new DomainEvent.SeatCount(5, 1));
+        assertEquals(2, catalog.all().size());
+    }
+
+    @Test
+    void lateEventsDoNotOverwriteNewerCounts() {
+        FlightCatalog catalog = new FlightCatalog(Long.MAX_VALUE, -1);
+        catalog.putAll(List.of(flight(1, "Sofia", "London", 10)));
+
+        catalog.seatsChanged(1, new DomainEvent.SeatCount(7, 3));
+        catalog.seatsChanged(1, new DomainEvent.SeatCount(8, 2));
+        catalog.seatsChanged(1, new DomainEvent.SeatCount(8, 3));
+        assertEquals(7, catalog.get(1).availableSeats());
+
+        long version = catalog.version();
+        catalog.seatsChanged(1, null);
+        assertEquals(7, catalog.get(1).availableSeats());
+        assertEquals(version, catalog.version());
+    }
+
+    @Test
+    void filtersCombine() {
+        FlightCatalog catalog = new FlightCatalog(Long.MAX_VALUE, -1);
+        Flight business = new Flight(3, "Varna", "London", DEPARTS.plusDays(1), DEPARTS.plusDays(1).plusHours(3), 400,
+                8, true, 40);
+        catalog.putAll(List.of(flight(1, "Sofia", "London", 10), flight(2, "Sofia", "Paris", 50), business));
+
+        assertEquals(List.of(1, 3), ids(catalog.query(new FlightCatalog.Filter(null, "London", null, null))));
+        assertEquals(List.of(3), ids(catalog.query(new FlightCatalog.Filter(null, "London", null, true))));
+        assertEquals(List.of(1, 2),
+                ids(catalog.query(new FlightCatalog.Filter(null, null, DEPARTS.toLocalDate(), false))));
+        assertEquals(List.of(), ids(catalog.query(new FlightCatalog.Filter("Paris", null, null, null))));
+    }
+
+    @Test
+    void refreshTakesSeatCountsAndNewFlightsFromTheDatabase() throws SQLException {
+        int flightId = TestDatabase.seedFlight(100);
+        FlightCatalog catalog = new FlightCatalog(Long.MAX_VALUE, -1);
+        catalog.refresh();
+        assertEquals(100, catalog.get(flightId).availableSeats());
+
+        int added = TestDatabase.seedFlight(20);
+        catalog.refresh();
+        assertNotNull(catalog.get(added));
+        assertEquals(20, catalog.get(added).availableSeats());
+        assertEquals(100, catalog.get(flightId).availableSeats());
+    }
+
+    @Test
+    void eventsAlreadyInARefreshAreNotCountedTwice() throws SQLException {
+        int flightId = TestDatabase.seedFlight(100);
+        FlightCatalog catalog = new FlightCatalog(Long.MAX_VALUE, -1);
+        catalog.refresh();
+
+        // A booking commits, the refresh reads its count, and only then does its event arrive.
+        setSeats(flightId, 99, 1);
+        catalog.refresh();
+        catalog.seatsChanged(flightId, new DomainEvent.SeatCount(99, 1));
+        assertEquals(99, catalog.get(flightId).availableSeats());
+
+        // The other way round: an event newer than what the refresh read.
+        catalog.seatsChanged(flightId, new DomainEvent.SeatCount(97, 3));
+        catalog.refresh();
+        assertEquals(97, catalog.get(flightId).availableSeats());
+
+        // Seats changed by a client that does not bump seat_version still come through a refresh.
+        setSeats(flightId, 90, 3);
+        catalog.refresh();
+        assertEquals(90, catalog.get(flightId).availableSeats());
+    }
+
+    @Test
+    void replacingAFlightMovesItInTheIndexes() {
+        FlightCatalog catalog = new FlightCatalog(Long.MAX_VALUE, -1);
+        catalog.putAll(List.of(flight(1, "Sofia", "London", 10)));
+        catalog.putAll(List.of(flight(1, "Varna", "Paris", 10)));
+
+        assertEquals(List.of(), catalog.query(new FlightCatalog.Filter("Sofia", null, null, null)));
+        assertEquals(List.of(1), ids(catalog.query(new FlightCatalog.Filter("Varna", "Paris", null, null))));
+        assertEquals(List.of(), catalog.routes().destinations("Sofia"));
+        assertEquals(List.of("Paris"), catalog.routes().destinations("Varna"));
+    }
+
+    @Test
+    void betweenFullReadsARefreshTakesOnlyLoggedChanges() throws SQLException {
+        int booked = TestDatabase.seedFlight(100);
+        int untouched = TestDatabase.seedFlight(100);
+        FlightCatalog catalog = new FlightCatalog(Long.MAX_VALUE, -1, Long.MAX_VALUE);
+        catalog.refresh();
+
+        SeatReservationEngine.reserve(1, booked, "A1");
+        // Not in the change log, so it waits for the next full read.
+        setSeats(untouched, 50, 5);
+        catalog.refresh();
+        assertEquals(99, catalog.get(booked).availableSeats());
+        assertEquals(100, catalog.get(untouched).availableSeats());
+    }
+
+    @Test
+    void bookingPublishesTheCommittedCount() throws SQLException {
+        int flightId = TestDatabase.seedFlight(100);
+        List<DomainEvent> events = new CopyOnWriteArrayList<>();
+        Runnable unsubscribe = DomainEvents.subscribe(events::add);
+        try {
+            SeatReservationEngine.reserve(1, flightId, "A1");
+            SeatReservationEngine.reserve(1, flightId, "A2");
+        } finally {
+            unsubscribe.run();
+        }
+        assertEquals(List.of(new DomainEvent.SeatCount(99, 1), new DomainEvent.SeatCount(98, 2)),
+                events.stream().filter(e -> e.flightId() == flightId).map(DomainEvent::seats).toList());
+    }
+
+    @Test
+    void addingAFlightPublishesItsId() throws SQLException {
+        List<DomainEvent> events = new CopyOnWriteArrayList<>();
+        Runnable unsubscribe = DomainEvents.subscribe(events::add);
+        try {
+            DBConnection.insertFullFlight("Sofia", "Rome", Timestamp.valueOf(DEPARTS),
+                    Timestamp.valueOf(DEPARTS.plusHours(2)), 120, 90, false);
+        } finally {
+            unsubscribe.run();
+        }
+        assertEquals(1, events.size());
+        assertEquals("Rome", FlightRepository.findAfter(events.get(0).flightId() - 1).get(0).destinationCity());
+    }
+
+    private static void setSeats(int flightId, int seats, long version) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "UPDATE flights SET available_seats = ?, seat_version = ? WHERE flight_id = ?")) {
+            pstmt.setInt(1, seats);
+            pstmt.setLong(2, version);
+            pstmt.setInt(3, flightId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static List<Integer> ids(List<Flight> flights) {
+        return flights.stream().map(Flight::flightId).toList();
+    }
+}
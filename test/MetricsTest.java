@@ -0,0 +1,30 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+    @Test
+    void statsRecordsBecomeOneFieldPerComponent() {
+        assertEquals("{\"events\": 12, \"overBudget\": 1, \"maxMillis\": 250, \"budgetMillis\": 100}",
+                Metrics.toJson(new EdtWatchdog.Stats(12, 1, 250, 100)));
+        assertEquals("null", Metrics.toJson(null));
+    }
+
+    @Test
+    void exportWritesPoolStatsAsAnObject() throws Exception {
+        TestDatabase.createSchemaIfMissing();
+        Path file = Files.createTempFile("metrics", ".json");
+        try {
+            Metrics.export(file);
+            String json = Files.readString(file);
+            assertTrue(json.contains("\"pool\": {\"active\": "), json);
+            assertTrue(json.contains("\"bcrypt\": {\"active\": "), json);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
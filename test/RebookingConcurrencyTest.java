@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RebookingConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int SEATS = 30;
+    private static final int PER_THREAD = 15;
+
+    @BeforeAll
+    static void schema() throws SQLException {
+        TestDatabase.createSchemaIfMissing();
+    }
+
+    /** Opposite swaps between the same two flights, the pattern that used to deadlock. */
+    @Test
+    void concurrentSwapsKeepBothFlightsConsistent() throws Exception {
+        int[] flights = {TestDatabase.seedFlight(SEATS), TestDatabase.seedFlight(SEATS)};
+        List<Integer> tickets = new ArrayList<>();
+        for (int flightId : flights) {
+            for (int i = 1; i <= SEATS * 2 / 3; i++) tickets.add(SeatReservationEngine.reserve(1, flightId, "A" + i));
+        }
+
+        List<SQLException> failures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        int ticketId = tickets.get(random.nextInt(tickets.size()));
+                        int flightId = flights[random.nextInt(flights.length)];
+                        try {
+                            RebookingEngine.rebook(ticketId, flightId, "A" + (1 + random.nextInt(SEATS)));
+                        } catch (SQLException e) {
+                            String message = String.valueOf(e.getMessage());
+                            if (!message.startsWith("No available seats") && !message.contains("already taken")) {
+                                synchronized (failures) {
+                                    failures.add(e);
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(List.of(), failures);
+        int total = 0;
+        for (int flightId : flights) {
+            TestDatabase.Inventory inventory = TestDatabase.inventory(flightId);
+            assertEquals(SEATS, inventory.tickets() + inventory.available(), "BA" + flightId + " inventory");
+            assertEquals(inventory.tickets(), inventory.distinctSeats(), "BA" + flightId + " duplicate seats");
+            total += inventory.tickets();
+        }
+        assertEquals(tickets.size(), total);
+    }
+
+    /** A cancellation by user must also find the tickets that rebookings move onto another flight meanwhile. */
+    @Test
+    void cancellingByUserCatchesTicketsBeingMoved() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            int userId = 9_000 + round;
+            int[] flights = {TestDatabase.seedFlight(SEATS), TestDatabase.seedFlight(SEATS)};
+            List<Integer> tickets = new ArrayList<>();
+            for (int i = 1; i <= SEATS / 3; i++) {
+                tickets.add(SeatReservationEngine.reserve(userId, flights[0], "B" + i));
+            }
+
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(tickets.size() + 1);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < tickets.size(); t++) {
+                    int ticketId = tickets.get(t);
+                    String seat = "A" + (t + 1);
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        try {
+                            RebookingEngine.rebook(ticketId, flights[1], seat);
+                        } catch (SQLException e) {
+                            if (!"Ticket not found".equals(e.getMessage())) throw e;
+                        }
+                        return null;
+                    }));
+                }
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return CancellationService.cancelByUser(userId);
+                }));
+                start.countDown();
+                for (Future<?> f : futures) f.get();
+            } finally {
+                pool.shutdown();
+            }
+
+            for (int flightId : flights) {
+                TestDatabase.Inventory inventory = TestDatabase.inventory(flightId);
+                assertEquals(0, inventory.tickets(), "BA" + flightId + " kept a cancelled user's ticket");
+                assertEquals(SEATS, inventory.available(), "BA" + flightId + " inventory");
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleImporterTest {
+    private static final String HEADER =
+            "departure_city,destination_city,departure_time,arrival_time,price,seats,is_exclusive";
+
+    private static ScheduleImporter.Row parse(String line) throws IOException {
+        return ScheduleImporter.parse(2, line, ScheduleImporter.columns(HEADER));
+    }
+
+    private static String reject(String line) {
+        return assertThrows(IllegalArgumentException.class, () -> parse(line)).getMessage();
+    }
+
+    @Test
+    void splitsQuotedFields() {
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""), ScheduleImporter.split("a,\"b,c\",\"say \"\"hi\"\"\","));
+        assertEquals(List.of(""), ScheduleImporter.split(""));
+    }
+
+    @Test
+    void columnsMayComeInAnyOrder() throws IOException {
+        Map<String, Integer> columns = ScheduleImporter.columns(
+                "\uFEFFSeats,price,is_exclusive,arrival_time,departure_time,destination_city,departure_city");
+        ScheduleImporter.Row row = ScheduleImporter.parse(7,
+                "40,99.5,yes,2030-05-01T12:00,2030-05-01 09:30,London,Sofia", columns);
+        assertEquals("Sofia", row.departure());
+        assertEquals("London", row.destination());
+        assertEquals(LocalDateTime.of(2030, 5, 1, 9, 30), row.departureTime());
+        assertEquals(LocalDateTime.of(2030, 5, 1, 12, 0), row.arrivalTime());
+        assertEquals(99.5, row.price());
+        assertEquals(40, row.seats());
+        assertTrue(row.exclusive());
+        assertEquals(7, row.lineNo());
+    }
+
+    @Test
+    void missingColumnFailsTheFile() {
+        assertThrows(IOException.class, () -> ScheduleImporter.columns("departure_city,destination_city,price"));
+    }
+
+    @Test
+    void acceptsAValidRow() throws IOException {
+        ScheduleImporter.Row row = parse(" Sofia , \"Paris\",2030-05-01 09:30:15,2030-05-01 12:00,0,1,");
+        assertEquals("Sofia", row.departure());
+        assertEquals("Paris", row.destination());
+        assertEquals(0.0, row.price());
+        assertFalse(row.exclusive());
+    }
+
+    @Test
+    void rejectsInvalidRows() {
+        assertEquals("City is required", reject(",London,2030-05-01 09:30,2030-05-01 12:00,100,180,0"));
+        assertEquals("City name is too long",
+                reject("x".repeat(101) + ",London,2030-05-01 09:30,2030-05-01 12:00,100,180,0"));
+        assertEquals("Departure and destination are the same",
+                reject("Sofia,SOFIA,2030-05-01 09:30,2030-05-01 12:00,100,180,0"));
+        assertEquals("Invalid time: 01/05/2030", reject("Sofia,London,01/05/2030,2030-05-01 12:00,100,180,0"));
+        assertEquals("Arrival is not after departure",
+                reject("Sofia,London,2030-05-01 09:30,2030-05-01 09:30,100,180,0"));
+        assertTrue(reject("Sofia,London,2030-05-01 09:30,2030-05-01 12:00,cheap,180,0").startsWith("Invalid number"));
+        assertEquals("Invalid price", reject("Sofia,London,2030-05-01 09:30,2030-05-01 12:00,-1,180,0"));
+        assertEquals("Invalid price", reject("Sofia,London,2030-05-01 09:30,2030-05-01 12:00,NaN,180,0"));
+        assertEquals("Seats must be 1-1000", reject("Sofia,London,2030-05-01 09:30,2030-05-01 12:00,100,0,0"));
+        assertEquals("Seats must be 1-1000", reject("Sofia,London,2030-05-01 09:30,2030-05-01 12:00,100,1001,0"));
+        assertEquals("Invalid is_exclusive value", reject("Sofia,London,2030-05-01 09:30,2030-05-01 12:00,100,180,maybe"));
+        assertEquals("Missing is_exclusive", reject("Sofia,London,2030-05-01 09:30,2030-05-01 12:00,100,180"));
+    }
+
+    @Test
+    void resumesAfterACrashWithoutDuplicating(@TempDir Path dir) throws Exception {
+        TestDatabase.createSchemaIfMissing();
+        List<String> lines = new ArrayList<>(List.of(HEADER));
+        LocalDateTime departure = LocalDateTime.of(2030, 6, 1, 6, 0);
+        for (int i = 0; i < 200; i++) {
+            String seats = i % 20 == 0 ? "0" : "120";
+            lines.add("Sofia,Varna," + departure.plusHours(i) + "," + departure.plusHours(i + 1) + ",99," + seats
+                    + ",0");
+        }
+        File file = Files.write(dir.resolve("schedule.csv"), lines).toFile();
+        String source = "resume-" + System.nanoTime();
+
+        int before = countFlights();
+        ScheduleImporter importer = new ScheduleImporter(20, 5);
+        assertThrows(IllegalStateException.class, () -> importer.importFile(file, source, report -> {
+            if (report.lastLine() > 100) throw new IllegalStateException("simulated crash");
+        }));
+        assertTrue(countFlights() > before);
+
+        ScheduleImporter.Report resumed = importer.importFile(file, source, null);
+        assertEquals(190, countFlights() - before);
+        assertEquals(190, resumed.imported());
+    }
+
+    private static int countFlights() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM flights")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
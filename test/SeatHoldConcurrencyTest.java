@@ -0,0 +1,88 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Needs a short hold lifetime; surefire sets {@code flymanagement.holds.ttlMs}. */
+class SeatHoldConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int FLIGHTS = 4;
+    private static final int SEATS = 40;
+
+    @BeforeAll
+    static void schema() throws SQLException {
+        TestDatabase.createSchemaIfMissing();
+    }
+
+    @Test
+    void expiredHoldsGiveTheirSeatsBackExactlyOnce() throws Exception {
+        int[] flights = new int[FLIGHTS];
+        for (int i = 0; i < FLIGHTS; i++) flights[i] = TestDatabase.seedFlight(SEATS);
+
+        List<SeatHoldService.Hold> holds = new ArrayList<>();
+        int booked = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<SeatHoldService.Hold>>> placing = new ArrayList<>();
+            // More holds asked for than there are seats, so some attempts find the flights full.
+            int perThread = FLIGHTS * SEATS * 5 / 4 / THREADS;
+            for (int t = 0; t < THREADS; t++) {
+                int userId = t + 1;
+                placing.add(pool.submit(() -> {
+                    List<SeatHoldService.Hold> placed = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        int flightId = flights[ThreadLocalRandom.current().nextInt(FLIGHTS)];
+                        try {
+                            placed.add(SeatHoldService.place(userId, flightId, null));
+                        } catch (SQLException e) {
+                            if (!String.valueOf(e.getMessage()).startsWith("No available seats")) throw e;
+                        }
+                    }
+                    return placed;
+                }));
+            }
+            for (Future<List<SeatHoldService.Hold>> f : placing) holds.addAll(f.get());
+
+            List<Future<Integer>> booking = new ArrayList<>();
+            for (int i = 0; i < holds.size(); i += 5) {
+                SeatHoldService.Hold hold = holds.get(i);
+                booking.add(pool.submit(() -> SeatHoldService.book(hold, hold.seat(), hold.fare())));
+            }
+            for (Future<Integer> f : booking) {
+                f.get();
+                booked++;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long deadline = holds.stream().mapToLong(SeatHoldService.Hold::expiresAt).max().orElse(0)
+                + TimeUnit.SECONDS.toMillis(20);
+        while (System.currentTimeMillis() < deadline && held(flights) > 0) Thread.sleep(100);
+
+        int tickets = 0;
+        for (int flightId : flights) {
+            TestDatabase.Inventory inventory = TestDatabase.inventory(flightId);
+            assertEquals(0, inventory.held(), "BA" + flightId + " holds left behind");
+            assertEquals(SEATS, inventory.tickets() + inventory.available(), "BA" + flightId + " inventory");
+            assertEquals(inventory.tickets(), inventory.distinctSeats(), "BA" + flightId + " duplicate seats");
+            tickets += inventory.tickets();
+        }
+        assertEquals(booked, tickets);
+    }
+
+    private static int held(int[] flights) throws SQLException {
+        int held = 0;
+        for (int flightId : flights) held += TestDatabase.inventory(flightId).held();
+        return held;
+    }
+}
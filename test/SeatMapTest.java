@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatMapTest {
+    @Test
+    void seatNamesRoundTrip() {
+        SeatMap map = SeatMap.forFlight(false, 180);
+        assertEquals(30, map.getRows());
+        for (int i = 0; i < map.getCapacity(); i++) {
+            assertEquals(i, map.indexOf(map.seatAt(i)));
+        }
+        assertEquals(0, map.indexOf("a1"));
+        assertEquals(-1, map.indexOf("G1"));
+        assertEquals(-1, map.indexOf("A0"));
+        assertEquals(-1, map.indexOf("A31"));
+        assertEquals(-1, map.indexOf("Ax"));
+        assertEquals(-1, map.indexOf(null));
+    }
+
+    @Test
+    void lastRowIsOnlyAsWideAsTheCapacity() {
+        SeatMap map = SeatMap.forFlight(true, 10);
+        assertEquals(3, map.getRows());
+        assertTrue(map.exists("B3"));
+        assertFalse(map.exists("C3"));
+        assertEquals(10, map.freeSeats().size());
+    }
+
+    @Test
+    void occupyAndRelease() {
+        SeatMap map = SeatMap.forFlight(false, 12);
+        assertTrue(map.occupy("C1"));
+        assertFalse(map.occupy("C1"));
+        assertFalse(map.occupy("Z9"));
+        assertEquals(11, map.freeCount());
+        assertFalse(map.isFree("C1"));
+
+        map.release("C1");
+        map.release("C1");
+        assertEquals(12, map.freeCount());
+        assertTrue(map.isFree("C1"));
+    }
+
+    @Test
+    void adjacentSeatsStayInOneRow() {
+        SeatMap map = SeatMap.forFlight(false, 12);
+        for (String seat : List.of("A1", "B1", "C1", "D1")) map.occupy(seat);
+
+        // E1 and F1 are free but only two wide, so three together start on row 2.
+        assertEquals(List.of("A2", "B2", "C2"), map.nextFreeAdjacent(3));
+        assertEquals(List.of("E1", "F1"), map.nextFreeAdjacent(2));
+        assertEquals(List.of(), map.nextFreeAdjacent(7));
+    }
+
+    @Test
+    void groupFillsWholeRowsFirstWithoutOccupying() {
+        SeatMap map = SeatMap.forFlight(false, 18);
+        map.occupy("B1");
+
+        assertEquals(List.of("A2", "B2", "C2", "D2", "E2", "F2", "C1", "D1"), map.nextFreeGroup(8));
+        assertEquals(17, map.freeCount());
+        assertTrue(map.isFree("A2"));
+        assertEquals(17, map.nextFreeGroup(17).size());
+        assertEquals(List.of(), map.nextFreeGroup(18));
+    }
+}
@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatReservationConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int SEATS = 60;
+    private static final int PER_THREAD = 10;
+
+    @BeforeAll
+    static void schema() throws SQLException {
+        TestDatabase.createSchemaIfMissing();
+    }
+
+    @Test
+    void concurrentBookingsNeverOversellOrShareASeat() throws Exception {
+        int flightId = TestDatabase.seedFlight(SEATS);
+        AtomicInteger booked = new AtomicInteger();
+        List<SQLException> failures = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int userId = t + 1;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < PER_THREAD; i++) {
+                        // Twice as many seat names as seats: the flight sells out and threads collide on seats.
+                        int n = ThreadLocalRandom.current().nextInt(SEATS * 2);
+                        String seat = "ABCDEF".charAt(n % 6) + String.valueOf(n / 6 + 1);
+                        try {
+                            SeatReservationEngine.reserve(userId, flightId, seat);
+                            booked.incrementAndGet();
+                        } catch (SQLException e) {
+                            String message = String.valueOf(e.getMessage());
+                            if (!message.startsWith("No available seats") && !message.contains("already taken")) {
+                                synchronized (failures) {
+                                    failures.add(e);
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(List.of(), failures);
+        TestDatabase.Inventory inventory = TestDatabase.inventory(flightId);
+        assertTrue(inventory.available() >= 0);
+        assertEquals(booked.get(), inventory.tickets());
+        assertEquals(SEATS, inventory.tickets() + inventory.available());
+        assertEquals(inventory.tickets(), inventory.distinctSeats(), "duplicate seat assignments");
+    }
+}
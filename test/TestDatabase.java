@@ -0,0 +1,80 @@
+import java.sql.*;
+import java.util.concurrent.TimeUnit;
+
+/** Schema and fixtures for the tests that run against the in-memory H2 database surefire configures. */
+final class TestDatabase {
+    private TestDatabase() {
+    }
+
+    /** The tables the baseline schema had before the migrations, then every migration. */
+    static void createSchemaIfMissing() throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS flights (" +
+                    "flight_id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "departure_city VARCHAR(100) NOT NULL, " +
+                    "destination_city VARCHAR(100) NOT NULL, " +
+                    "departure_time TIMESTAMP NOT NULL, " +
+                    "arrival_time TIMESTAMP NOT NULL, " +
+                    "price DOUBLE NOT NULL, " +
+                    "available_seats INT NOT NULL, " +
+                    "is_exclusive BOOLEAN NOT NULL DEFAULT FALSE)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS tickets (" +
+                    "ticket_id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "user_id INT NOT NULL, " +
+                    "flight_id INT NOT NULL, " +
+                    "seat_number VARCHAR(10) NOT NULL)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS users (" +
+                    "user_id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "email VARCHAR(100) NOT NULL UNIQUE, " +
+                    "first_name VARCHAR(50) NOT NULL, " +
+                    "last_name VARCHAR(50) NOT NULL, " +
+                    "password VARCHAR(100) NOT NULL, " +
+                    "profile_image BLOB)");
+        }
+        SchemaMigrator.migrate();
+    }
+
+    static int seedFlight(int seats) throws SQLException {
+        long now = System.currentTimeMillis();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO flights (departure_city, destination_city, departure_time, arrival_time, " +
+                             "price, available_seats, is_exclusive, total_seats) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, "Sofia");
+            pstmt.setString(2, "London");
+            pstmt.setTimestamp(3, new Timestamp(now + TimeUnit.DAYS.toMillis(7)));
+            pstmt.setTimestamp(4, new Timestamp(now + TimeUnit.DAYS.toMillis(7) + TimeUnit.HOURS.toMillis(3)));
+            pstmt.setDouble(5, 199.0);
+            pstmt.setInt(6, seats);
+            pstmt.setBoolean(7, false);
+            pstmt.setInt(8, seats);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (!keys.next()) throw new SQLException("No flight id generated");
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    /** A flight's seat count next to what its tickets and holds say it should be. */
+    record Inventory(int available, int tickets, int distinctSeats, int held) {
+    }
+
+    static Inventory inventory(int flightId) throws SQLException {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT f.available_seats, " +
+                             "(SELECT COUNT(*) FROM tickets t WHERE t.flight_id = f.flight_id), " +
+                             "(SELECT COUNT(DISTINCT seat_number) FROM tickets t WHERE t.flight_id = f.flight_id), " +
+                             "(SELECT COUNT(*) FROM seat_holds h WHERE h.flight_id = f.flight_id) " +
+                             "FROM flights f WHERE f.flight_id = ?")) {
+            pstmt.setInt(1, flightId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) throw new SQLException("Flight BA" + flightId + " not found");
+                return new Inventory(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+            }
+        }
+    }
+}